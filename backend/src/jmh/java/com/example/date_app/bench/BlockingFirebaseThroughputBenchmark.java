@@ -0,0 +1,70 @@
+package com.example.date_app.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기본 플랫폼 스레드 풀(Tomcat 기본 최대 200) vs 가상 스레드에서
+ * "getUserByEmail 블로킹 + RTDB 결과 대기" 로 이루어진 요청을 동시에 처리할 때의 처리량 비교.
+ * 1 op = 동시 요청 concurrentRequests 개를 모두 끝내는 것.
+ *
+ * 실행: ./gradlew jmh -PjmhIncludes=BlockingFirebaseThroughputBenchmark  (JDK 21 필요)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class BlockingFirebaseThroughputBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"1000"})
+    public int concurrentRequests;
+
+    private FirebaseStandIn firebase;
+    private ExecutorService platformPool;
+    private VirtualThreadTaskExecutor virtualExecutor;
+
+    @Setup
+    public void setUp() {
+        firebase = new FirebaseStandIn(15, 10);
+        if ("virtual".equals(mode)) {
+            virtualExecutor = new VirtualThreadTaskExecutor("bench-vt-");
+        } else {
+            platformPool = Executors.newFixedThreadPool(200);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (platformPool != null) platformPool.shutdownNow();
+        firebase.close();
+    }
+
+    @Benchmark
+    public void handleBurst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            String email = "user" + i + "@test.com";
+            Runnable request = () -> {
+                String uid = firebase.lookupUid(email);
+                firebase.readProfile(uid).join();
+                done.countDown();
+            };
+            if (virtualExecutor != null) {
+                virtualExecutor.execute(request);
+            } else {
+                platformPool.execute(request);
+            }
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.date_app.bench;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벤치마크용 Firebase 대역. 네트워크 대신 고정 지연만 흉내 낸다.
+ * - lookupUid: Admin SDK getUserByEmail 처럼 호출 스레드를 막는 원격 호출
+ * - readProfile: RTDB 리스너처럼 별도 콜백 스레드에서 완료되는 조회
+ */
+public class FirebaseStandIn implements AutoCloseable {
+
+    private final long lookupMillis;
+    private final long readMillis;
+    private final ScheduledExecutorService callbackThread = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stand-in-rtdb");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FirebaseStandIn(long lookupMillis, long readMillis) {
+        this.lookupMillis = lookupMillis;
+        this.readMillis = readMillis;
+    }
+
+    public String lookupUid(String email) {
+        try {
+            Thread.sleep(lookupMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "uid-" + email.hashCode();
+    }
+
+    public CompletableFuture<Map<String, Object>> readProfile(String uid) {
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        callbackThread.schedule(() -> future.complete(Map.of("uid", uid)), readMillis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    @Override
+    public void close() {
+        callbackThread.shutdownNow();
+    }
+}
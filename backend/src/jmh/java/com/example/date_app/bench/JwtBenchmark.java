@@ -0,0 +1,45 @@
+package com.example.date_app.bench;
+
+import com.example.date_app.security.AuthenticatedUser;
+import com.example.date_app.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil 토큰 발급 / 서명 검증 / 검증 캐시 조회 비용.
+ * 실행: ./gradlew jmh -PjmhIncludes=JwtBenchmark  (기본으로 -prof gc 포함)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        token = jwtUtil.generateToken("user@test.com");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("user@test.com");
+    }
+
+    @Benchmark
+    public String validateAndGetEmail() {
+        return jwtUtil.validateAndGetEmail(token);
+    }
+
+    /** 필터가 쓰는 경로: 두 번째 요청부터는 검증 캐시에서 끝난다 */
+    @Benchmark
+    public AuthenticatedUser authenticate() {
+        return jwtUtil.authenticate(token);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.date_app.bench;
+
+import com.example.date_app.security.JwtAuthenticationFilter;
+import com.example.date_app.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 1건당 JWT 인증 필터 비용: 변경 전(legacy) vs 현재(파서 재사용 + 검증 토큰 캐시).
+ *
+ * 실행: ./gradlew jmh -PjmhIncludes=JwtFilterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"legacy", "current"})
+    public String filter;
+
+    private OncePerRequestFilter target;
+    private String authorization;
+    private final FilterChain chain = (request, response) -> { };
+    // 요청마다 새로 만들면 MockServletContext 초기화 비용이 측정값을 덮어 버린다
+    private final MockServletContext servletContext = new MockServletContext();
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        authorization = "Bearer " + jwtUtil.generateToken("user@test.com");
+
+        if ("legacy".equals(filter)) {
+            Field keyField = JwtUtil.class.getDeclaredField("key");
+            keyField.setAccessible(true);
+            target = new LegacyJwtAuthenticationFilter((Key) keyField.get(null),
+                    new PrintStream(OutputStream.nullOutputStream(), false, "UTF-8"));
+        } else {
+            target = new JwtAuthenticationFilter(jwtUtil);
+        }
+    }
+
+    @Benchmark
+    public Object authenticateRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/api/profile");
+        request.addHeader("Authorization", authorization);
+        target.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
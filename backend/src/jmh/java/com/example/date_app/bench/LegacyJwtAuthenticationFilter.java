@@ -0,0 +1,62 @@
+package com.example.date_app.bench;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.security.Key;
+import java.util.Collections;
+
+/**
+ * 비교용: 변경 전 JwtAuthenticationFilter + JwtUtil.validateAndGetEmail 동작 그대로
+ * (요청마다 parserBuilder().build(), 매번 서명 검증, 요청마다 로그 출력)
+ * 로그는 전역 System.out 대신 받은 PrintStream 으로 보낸다. 벤치마크는 버리는 스트림을 넘긴다 (포맷팅 비용은 그대로 측정됨).
+ */
+class LegacyJwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final Key key;
+    private final PrintStream out;
+
+    LegacyJwtAuthenticationFilter(Key key, PrintStream out) {
+        this.key = key;
+        this.out = out;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            String token = header.substring(7);
+            try {
+                Jws<Claims> claims = Jwts.parserBuilder()
+                        .setSigningKey(key)
+                        .build()
+                        .parseClaimsJws(token);
+                String email = claims.getBody().getSubject();
+                out.println("✅ JWT 인증 성공 - 사용자 이메일: " + email);
+
+                UsernamePasswordAuthenticationToken auth =
+                        new UsernamePasswordAuthenticationToken(
+                                email,
+                                null,
+                                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                        );
+                SecurityContextHolder.getContext().setAuthentication(auth);
+            } catch (Exception e) {
+                out.println("❌ JWT 인증 실패: " + e.getMessage());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
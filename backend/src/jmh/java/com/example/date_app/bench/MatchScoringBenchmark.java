@@ -0,0 +1,58 @@
+package com.example.date_app.bench;
+
+import com.example.date_app.model.Candidate;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.service.MatchScoringService;
+import com.example.date_app.service.TagDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 점수 계산 커널(calculateScore)과 RTDB Map → Candidate / RequesterContext 해석 비용.
+ * 후보 배열을 돌아가며 써서 같은 입력만 반복되지 않게 한다.
+ * 실행: ./gradlew jmh -PjmhIncludes=MatchScoringBenchmark  (기본으로 -prof gc 포함)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchScoringBenchmark {
+
+    private static final int SIZE = 4096; // 2 의 거듭제곱 (MASK 로 순환)
+    private static final int MASK = SIZE - 1;
+
+    private MatchScoringService scoringService;
+    private List<Map<String, Object>> profiles;
+    private Candidate[] candidates;
+    private RequesterContext me;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        scoringService = new MatchScoringService(new TagDictionary());
+        profiles = SyntheticProfiles.generate(SIZE, 64, 42);
+        candidates = scoringService.toCandidates(profiles).toArray(new Candidate[0]);
+        me = scoringService.requesterContext("me@test.com", profiles.get(0));
+    }
+
+    @Benchmark
+    public int calculateScore() {
+        return scoringService.calculateScore(me, candidates[next++ & MASK]);
+    }
+
+    @Benchmark
+    public Candidate decodeCandidate() {
+        return scoringService.toCandidate(profiles.get(next++ & MASK));
+    }
+
+    @Benchmark
+    public RequesterContext decodeRequester() {
+        Map<String, Object> profile = profiles.get(next++ & MASK);
+        return scoringService.requesterContext((String) profile.get("email"), profile);
+    }
+}
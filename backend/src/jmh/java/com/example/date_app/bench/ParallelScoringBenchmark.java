@@ -0,0 +1,59 @@
+package com.example.date_app.bench;
+
+import com.example.date_app.dto.MatchRecommendation;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.service.CandidateIndex;
+import com.example.date_app.service.MatchScoringService;
+import com.example.date_app.service.TagDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 추천 topK 순차 vs 전용 ForkJoinPool 병렬 비교 (후보 1만 / 10만 / 100만 명).
+ * 실행: ./gradlew jmh -PjmhIncludes=ParallelScoringBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ParallelScoringBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int poolSize;
+
+    @Param({"sequential", "parallel"})
+    public String mode;
+
+    private MatchScoringService scoringService;
+    private CandidateIndex index;
+    private RequesterContext me;
+    private ForkJoinPool workers;
+
+    @Setup
+    public void setUp() {
+        scoringService = new MatchScoringService(new TagDictionary());
+        index = CandidateIndex.build(scoringService.toCandidates(SyntheticProfiles.generate(poolSize, 64, 42)));
+        me = scoringService.requesterContext("me@test.com", Map.of(
+                "gender", "남",
+                "personality", Map.of("mbti", "ENFP", "likeTags", List.of("tag1", "tag7", "tag19", "tag33", "tag50"))));
+        workers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Benchmark
+    public List<MatchRecommendation> topK() {
+        return "parallel".equals(mode)
+                ? scoringService.topK(me, index, 100, null, workers, 8192)
+                : scoringService.topK(me, index, 100, null);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.date_app.bench;
+
+import com.example.date_app.dto.RecommendationPage;
+import com.example.date_app.repository.InMemoryChatRepository;
+import com.example.date_app.repository.InMemoryDatabase;
+import com.example.date_app.repository.InMemoryIdentityProvider;
+import com.example.date_app.repository.InMemoryProfileRepository;
+import com.example.date_app.service.CandidateIndex;
+import com.example.date_app.service.ChatHistoryService;
+import com.example.date_app.service.ChatRoomAccess;
+import com.example.date_app.service.FirebaseAuthService;
+import com.example.date_app.service.FirebaseStorageService;
+import com.example.date_app.service.MatchScoringService;
+import com.example.date_app.service.MatchService;
+import com.example.date_app.service.ParallelScoringPool;
+import com.example.date_app.service.ProfileCache;
+import com.example.date_app.service.ProfileIndex;
+import com.example.date_app.service.RecommendationStore;
+import com.example.date_app.service.TagDictionary;
+import com.example.date_app.service.UidResolver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MatchService.recommendFor 전체 경로 (요청자 프로필 해석 → 후보 풀 → topN → 첫 페이지).
+ * Firebase 대신 메모리 풀을 쓰며, 점수 계산/색인/저장소 로직은 운영 코드 그대로다.
+ * onDemand: 매번 저장소를 비워 즉석 계산, stored: 사전 계산된 목록에서 페이지만 잘라 준다.
+ * 실행: ./gradlew jmh -PjmhIncludes=RecommendForBenchmark  (기본으로 -prof gc 포함)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RecommendForBenchmark {
+
+    private static final String EMAIL = "me@test.com";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int poolSize;
+
+    @Param({"onDemand", "stored"})
+    public String mode;
+
+    private MatchService matchService;
+    private RecommendationStore store;
+
+    @Setup
+    public void setUp() throws Exception {
+        MatchScoringService scoringService = new MatchScoringService(new TagDictionary());
+        CandidateIndex index = CandidateIndex.build(scoringService.toCandidates(SyntheticProfiles.generate(poolSize, 64, 42)));
+        Map<String, Object> myProfile = SyntheticProfiles.profile(EMAIL, "me", new SplittableRandom(7), 64);
+
+        ProfileCache profileCache = new ProfileCache(Duration.ofMinutes(10), 1000);
+        InMemoryDatabase database = new InMemoryDatabase(0, 0);
+        InMemoryIdentityProvider identityProvider = new InMemoryIdentityProvider(database);
+        InMemoryProfileRepository profileRepository = new InMemoryProfileRepository(database);
+        InMemoryChatRepository chatRepository = new InMemoryChatRepository(database);
+        UidResolver uidResolver = new UidResolver(identityProvider, Duration.ofMinutes(30), 1000);
+        FirebaseAuthService firebase = new FirebaseAuthService(uidResolver,
+                profileCache, identityProvider, profileRepository, chatRepository,
+                new ChatHistoryService(chatRepository, new ChatRoomAccess(uidResolver, chatRepository, 10_000, Duration.ofHours(1)), 50, 1000, Duration.ofMinutes(10)),
+                new FirebaseStorageService(DataSize.ofKilobytes(256), DataSize.ofKilobytes(64), DataSize.ofMegabytes(5))) {
+            @Override
+            public Map<String, Object> getUserProfile(String email) {
+                return myProfile;
+            }
+        };
+        ProfileIndex profileIndex = new ProfileIndex(scoringService, profileCache, event -> { }, profileRepository) {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public CandidateIndex candidateIndex() {
+                return index;
+            }
+        };
+        store = new RecommendationStore();
+        ParallelScoringPool scoringPool = new ParallelScoringPool(scoringService, 50_000, 8192, 0);
+        matchService = new MatchService(firebase, scoringService, profileIndex, store, scoringPool, Runnable::run, 100);
+
+        matchService.recommendFor(EMAIL, 20, null); // stored 모드용으로 한 번 채워 둔다
+    }
+
+    @Benchmark
+    public RecommendationPage recommendFor() throws Exception {
+        if ("onDemand".equals(mode)) store.remove(EMAIL);
+        return matchService.recommendFor(EMAIL, 20, null);
+    }
+}
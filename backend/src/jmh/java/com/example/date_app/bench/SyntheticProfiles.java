@@ -0,0 +1,50 @@
+package com.example.date_app.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/** 벤치마크용 RTDB 형태(Map) 가짜 프로필 생성기. 같은 seed 면 같은 풀이 나온다. */
+final class SyntheticProfiles {
+
+    static final String[] MBTI = {"INFP", "ENFP", "INTJ", "INTP", "ENTJ", "ENTP", "INFJ", "ENFJ",
+            "ISTJ", "ISFJ", "ESTJ", "ESFJ", "ISTP", "ISFP", "ESTP", "ESFP"};
+
+    private SyntheticProfiles() {
+    }
+
+    static List<Map<String, Object>> generate(int size, int tagCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Map<String, Object>> profiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            profiles.add(profile("user" + i + "@test.com", "user" + i, random, tagCount));
+        }
+        return profiles;
+    }
+
+    /** FirebaseAuthService.getUserProfile 처럼 수정 가능한 HashMap 으로 만든다 */
+    static Map<String, Object> profile(String email, String name, SplittableRandom random, int tagCount) {
+        Map<String, Object> personality = new HashMap<>();
+        personality.put("mbti", MBTI[random.nextInt(MBTI.length)]);
+        personality.put("tags", tags(random, tagCount));
+        personality.put("likeTags", tags(random, tagCount));
+
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("email", email);
+        profile.put("name", name);
+        profile.put("gender", random.nextBoolean() ? "남" : "여");
+        profile.put("birthdate", "1999-01-01");
+        profile.put("bio", "");
+        profile.put("profileImage", "/images/default-profile.png");
+        profile.put("personality", personality);
+        return profile;
+    }
+
+    private static List<String> tags(SplittableRandom random, int tagCount) {
+        List<String> tags = new ArrayList<>();
+        for (int t = random.nextInt(1, 6); t > 0; t--) tags.add("tag" + random.nextInt(tagCount));
+        return tags;
+    }
+}
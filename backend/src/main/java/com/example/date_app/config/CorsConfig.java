@@ -16,7 +16,7 @@ public class CorsConfig {
                         .allowedOrigins("http://210.109.54.109:5173")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
-                        .exposedHeaders("Authorization")
+                        .exposedHeaders("Authorization", "X-Next-Cursor", "X-Recommendations-Computed-At")
                         .allowCredentials(true);
             }
         };
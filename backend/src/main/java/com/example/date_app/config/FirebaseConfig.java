@@ -7,11 +7,13 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import jakarta.annotation.PostConstruct;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import java.io.FileInputStream;
 import java.io.InputStream;
 
 @Configuration
+@Profile("!inmemory") // inmemory 프로필에서는 FirebaseApp 을 만들지 않는다
 public class FirebaseConfig {
 
     @PostConstruct
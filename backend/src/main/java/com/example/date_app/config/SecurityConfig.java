@@ -70,7 +70,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://210.109.54.109:5173")); // React 개발 서버
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("Authorization")); // JWT 토큰 노출
+        configuration.setExposedHeaders(List.of("Authorization", "X-Next-Cursor", "X-Recommendations-Computed-At")); // JWT 토큰, 추천 목록 커서/계산 시각 노출
         configuration.setAllowCredentials(true); // 쿠키 허용
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,25 @@
+// com/example/date_app/config/VirtualThreadConfig.java
+package com.example.date_app.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * virtual 프로필 활성 시 실제로 가상 스레드 모드가 적용되는지 알려준다.
+ * spring.threads.virtual.enabled 는 JRE 21 미만에서는 조용히 무시되기 때문.
+ */
+@Configuration
+@Profile("virtual")
+public class VirtualThreadConfig {
+
+    @PostConstruct
+    public void report() {
+        int feature = Runtime.version().feature();
+        if (feature < 21) {
+            System.out.println("⚠️ virtual 프로필이지만 JRE " + feature + " 에서는 가상 스레드를 사용할 수 없어 기본 스레드 풀로 동작합니다.");
+        } else {
+            System.out.println("🧵 가상 스레드 모드: Tomcat 요청 처리와 applicationTaskExecutor 가 가상 스레드에서 실행됩니다.");
+        }
+    }
+}
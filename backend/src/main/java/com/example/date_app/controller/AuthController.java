@@ -2,23 +2,21 @@
 package com.example.date_app.controller;
 
 import com.example.date_app.service.FirebaseAuthService;
+import com.example.date_app.service.UidResolver;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import com.example.date_app.util.JwtUtil;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Controller
 @RequiredArgsConstructor
@@ -26,6 +24,7 @@ public class AuthController {
 
     private final FirebaseAuthService firebaseAuthService;
     private final JwtUtil jwtUtil;
+    private final UidResolver uidResolver;
 
     @GetMapping("/login")
     public String loginForm() {
@@ -34,60 +33,56 @@ public class AuthController {
 
     @PostMapping(value = "/api/login", consumes = "application/json", produces = "application/json")
     @ResponseBody
-    public ResponseEntity<Map<String, String>> loginWithToken(@RequestBody Map<String, String> body, HttpSession session) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> loginWithToken(@RequestBody Map<String, String> body) {
         System.out.println("🔥 로그인 요청 도착");
 
         String idToken = body.get("idToken");
-        System.out.println("📦 전달받은 idToken: " + idToken);
 
-        try {
-            FirebaseToken decodedToken = firebaseAuthService.verifyIdToken(idToken);
-            String email = decodedToken.getEmail();
-
-            boolean isNewUser = false;
-            if (!firebaseAuthService.userProfileExists(email)) {
-                firebaseAuthService.createInitialUserProfile(email);
-                isNewUser = true;
-                System.out.println("🌱 기본 프로필 자동 생성 완료");
-            }
-
-            String jwt = jwtUtil.generateToken(email);
-
-            UsernamePasswordAuthenticationToken auth =
-                    new UsernamePasswordAuthenticationToken(
-                            email,
-                            null,
-                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-                    );
-            SecurityContextHolder.getContext().setAuthentication(auth);
-
-            return ResponseEntity.ok(Map.of(
-                    "token", jwt,
-                    "newUser", String.valueOf(isNewUser)
-            ));
-        } catch (FirebaseAuthException e) {
-            System.out.println("❌ Firebase 인증 실패: " + e.getMessage());
-            return ResponseEntity.status(401).body(Map.of("error", "Firebase 인증 실패: " + e.getMessage()));
-        }
+        // 토큰 검증 → 프로필 확인/생성까지 Firebase 응답을 기다리는 동안 요청 스레드는 반환된다
+        return firebaseAuthService.verifyIdTokenAsync(idToken)
+                .thenCompose(identity -> {
+                    String email = identity.email();
+                    String uid = identity.uid();
+                    // 검증된 ID 토큰에 UID 가 있으므로 이후 조회는 getUserByEmail 없이 캐시에서 끝난다
+                    uidResolver.prime(email, uid);
+                    return firebaseAuthService.userProfileExistsAsync(email)
+                            .thenCompose(exists -> {
+                                if (exists) return CompletableFuture.completedFuture(false);
+                                return firebaseAuthService.createInitialUserProfileAsync(email)
+                                        .thenApply(v -> {
+                                            System.out.println("🌱 기본 프로필 자동 생성 완료");
+                                            return true;
+                                        });
+                            })
+                            .thenApply(isNewUser -> ResponseEntity.ok(Map.of(
+                                    "token", jwtUtil.generateToken(email),
+                                    "newUser", String.valueOf(isNewUser)
+                            )));
+                })
+                .exceptionally(e -> {
+                    Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+                    if (cause instanceof FirebaseAuthException) {
+                        System.out.println("❌ Firebase 인증 실패: " + cause.getMessage());
+                        return ResponseEntity.status(401).body(Map.of("error", "Firebase 인증 실패: " + cause.getMessage()));
+                    }
+                    throw new CompletionException(cause);
+                });
     }
 
     @GetMapping("/api/home")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> apiHome() {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> apiHome() {
         String userEmail = getCurrentUserEmail();
         if (userEmail == null) {
-            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body(Map.of("error", "Unauthorized")));
         }
 
-        try {
-            Map<String, Object> profile = firebaseAuthService.getUserProfile(userEmail);
-            return ResponseEntity.ok(Map.of(
-                    "userEmail", userEmail,
-                    "profile", profile
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", "Profile fetch failed"));
-        }
+        return firebaseAuthService.getUserProfileAsync(userEmail)
+                .thenApply(profile -> ResponseEntity.ok(Map.<String, Object>of(
+                        "userEmail", userEmail,
+                        "profile", profile
+                )))
+                .exceptionally(e -> ResponseEntity.status(500).body(Map.of("error", "Profile fetch failed")));
     }
 
     @GetMapping("/logout")
@@ -133,6 +128,6 @@ public class AuthController {
 
     private String getCurrentUserEmail() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return (auth != null) ? (String) auth.getPrincipal() : null;
+        return (auth != null) ? auth.getName() : null;
     }
 }
@@ -2,12 +2,29 @@
 
 package com.example.date_app.controller;
 
+import com.example.date_app.dto.ChatMessageRequest;
+import com.example.date_app.dto.ChatReadRequest;
+import com.example.date_app.service.ChatHistoryService;
+import com.example.date_app.service.ChatService;
+import com.example.date_app.service.ChatStreamGateway;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
-import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
 
 @Controller
+@RequiredArgsConstructor
 public class ChatController {
 
+    private final ChatService chatService;
+    private final ChatHistoryService chatHistoryService;
+    private final ChatStreamGateway chatStreamGateway;
+
     @GetMapping("/chat/list")
     public String chatListPage() {
         return "chatList";
@@ -17,4 +34,65 @@ public class ChatController {
     public String chatRoomPage() {
         return "chatRoom";
     }
+
+    // 메시지 전송: 메시지 + 양쪽 chat_list + 안 읽은 수 + user_rooms 를 한 번에 기록
+    @PostMapping("/api/chat/{roomId}/messages")
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<?>> sendMessage(@PathVariable String roomId,
+                                                            @RequestBody ChatMessageRequest request) {
+        String email = getCurrentUserEmail();
+        if (email == null) return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Unauthorized"));
+
+        return chatService.send(email, roomId, request.getTo(), request.getText())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    // 이전 기록: before 보다 앞선 메시지 limit 개 (before 없으면 최근 limit 개). 스크롤을 올리면 nextBefore 로 이어 읽는다. with = 대화 상대 email
+    @GetMapping("/api/chat/{roomId}/messages")
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<?>> messages(@PathVariable String roomId,
+                                                         @RequestParam("with") String withEmail,
+                                                         @RequestParam(required = false) String before,
+                                                         @RequestParam(defaultValue = "30") int limit) {
+        String email = getCurrentUserEmail();
+        if (email == null) return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Unauthorized"));
+
+        return chatHistoryService.page(email, roomId, withEmail, before, limit)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    // 읽음 처리: 메시지마다 read 를 쓰지 않고 읽음 위치(watermark) 하나와 unreadCount 만 기록
+    @PostMapping("/api/chat/{roomId}/read")
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<?>> markRead(@PathVariable String roomId,
+                                                         @RequestBody ChatReadRequest request) {
+        String email = getCurrentUserEmail();
+        if (email == null) return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Unauthorized"));
+
+        return chatService.markRead(email, roomId, request.getWith(), request.getLastReadMessageId())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    // 채팅 목록 실시간 스트림 (SSE): 바뀐 행만 "row" / "removed" 이벤트로 보낸다
+    @GetMapping(value = "/api/chat/list/stream", produces = "text/event-stream")
+    @ResponseBody
+    public SseEmitter chatListStream() {
+        String email = getCurrentUserEmail();
+        if (email == null) throw new IllegalArgumentException("로그인이 필요합니다.");
+        return chatStreamGateway.openList(email);
+    }
+
+    // 채팅방 메시지 실시간 스트림 (SSE): 최근 메시지 후 새 메시지/변경을 "message" 이벤트로 보낸다. with = 대화 상대 email
+    @GetMapping(value = "/api/chat/{roomId}/stream", produces = "text/event-stream")
+    @ResponseBody
+    public SseEmitter roomStream(@PathVariable String roomId, @RequestParam("with") String withEmail) {
+        String email = getCurrentUserEmail();
+        if (email == null) throw new IllegalArgumentException("로그인이 필요합니다.");
+        return chatStreamGateway.openRoom(email, roomId, withEmail);
+    }
+
+    private String getCurrentUserEmail() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return (auth != null) ? auth.getName() : null;
+    }
 }
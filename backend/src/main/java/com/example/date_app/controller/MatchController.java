@@ -3,21 +3,35 @@ package com.example.date_app.controller;
 import com.example.date_app.dto.MatchRecommendation;
 import com.example.date_app.service.FirebaseAuthService;
 import com.example.date_app.service.MatchService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/match")
 public class MatchController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String COMPUTED_AT_HEADER = "X-Recommendations-Computed-At";
+    private static final int MAX_LIMIT = 100;
+
     private final FirebaseAuthService firebaseAuthService;
     private final MatchService matchService;
+    private final ObjectMapper objectMapper;
 
     @Controller
     public class MatchPageController {
@@ -28,18 +42,51 @@ public class MatchController {
         }
     }
 
+    /**
+     * 상위 limit 명의 추천 목록을 JSON 배열로 스트리밍한다.
+     * 다음 페이지가 있으면 X-Next-Cursor 헤더 값을 cursor 로 다시 요청하면 된다.
+     * X-Recommendations-Computed-At 헤더는 순위를 계산한 시각(ISO-8601)이다.
+     */
     @GetMapping("/recommendations")
-    public List<MatchRecommendation> recommendMatches() throws Exception {
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> recommendMatches(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
         String myEmail = getCurrentUserEmail();
         if (myEmail == null || myEmail.equals("anonymousUser")) {
             throw new RuntimeException("❌ 인증되지 않은 사용자입니다.");
         }
 
-        return matchService.recommendFor(myEmail);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return matchService.recommendForAsync(myEmail, pageSize, cursor).thenApply(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(COMPUTED_AT_HEADER, Instant.ofEpochMilli(page.getComputedAt()).toString());
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(out -> writeRecommendations(page.getItems(), out));
+        });
+    }
+
+    private void writeRecommendations(List<MatchRecommendation> items, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            for (MatchRecommendation item : items) {
+                gen.writeStartObject();
+                gen.writeStringField("email", item.getEmail());
+                gen.writeStringField("name", item.getName());
+                gen.writeStringField("mbti", item.getMbti());
+                gen.writeNumberField("score", item.getScore());
+                gen.writeStringField("avatarImage", item.getAvatarImage());
+                gen.writeStringField("cardImage", item.getCardImage());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
     }
 
     private String getCurrentUserEmail() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return (auth != null) ? (String) auth.getPrincipal() : null;
+        return (auth != null) ? auth.getName() : null;
     }
 }
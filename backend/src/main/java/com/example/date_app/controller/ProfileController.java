@@ -1,8 +1,10 @@
 package com.example.date_app.controller;
 
 import com.example.date_app.dto.ProfileUpdateRequest;
+import com.example.date_app.model.UploadedImage;
 import com.example.date_app.service.FirebaseAuthService;
 import com.example.date_app.service.FirebaseStorageService;
+import com.example.date_app.service.ProfileImagePipeline;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -14,41 +16,45 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Controller
 @RequiredArgsConstructor
 public class ProfileController {
 
+    private static final int MAX_AVATAR_EMAILS = 50;
+
     private final FirebaseAuthService firebaseAuthService;
     private final FirebaseStorageService firebaseStorageService;
+    private final ProfileImagePipeline profileImagePipeline;
 
     // [1] 프로필 조회 페이지 (기존 home.html → profile.html로 사용)
     @GetMapping("/profile")
-    public String viewProfile(Model model) {
+    public CompletableFuture<String> viewProfile(Model model) {
         String userEmail = getCurrentUserEmail();
         if (userEmail == null) {
-            return "redirect:/login";
+            return CompletableFuture.completedFuture("redirect:/login");
         }
 
-        try {
-            Map<String, Object> profile = firebaseAuthService.getUserProfile(userEmail);
-            if (profile != null) {
-                model.addAttribute("profileImage", profile.getOrDefault("profileImage", "/images/default-profile.png"));
-
-                model.addAttribute("name", profile.getOrDefault("name", ""));
-                model.addAttribute("birthdate", profile.getOrDefault("birthdate", ""));
-                model.addAttribute("bio", profile.getOrDefault("bio", ""));
-                model.addAttribute("gender", profile.getOrDefault("gender", ""));
-
-                Map<String, Object> personality = (Map<String, Object>) profile.getOrDefault("personality", Map.of());
-                model.addAttribute("mbti", personality.getOrDefault("mbti", ""));
-                model.addAttribute("tags", personality.getOrDefault("tags", List.of()));
-            }
-        } catch (Exception e) {
-            model.addAttribute("error", "프로필 조회 실패: " + e.getMessage());
-        }
-
-        return "profile"; // ✅ 여기서 이제 profile.html을 렌더링
+        return firebaseAuthService.getUserProfileAsync(userEmail)
+                .thenApply(profile -> {
+                    model.addAttribute("profileImage", profile.getOrDefault("profileImage", "/images/default-profile.png"));
+
+                    model.addAttribute("name", profile.getOrDefault("name", ""));
+                    model.addAttribute("birthdate", profile.getOrDefault("birthdate", ""));
+                    model.addAttribute("bio", profile.getOrDefault("bio", ""));
+                    model.addAttribute("gender", profile.getOrDefault("gender", ""));
+
+                    Map<String, Object> personality = (Map<String, Object>) profile.getOrDefault("personality", Map.of());
+                    model.addAttribute("mbti", personality.getOrDefault("mbti", ""));
+                    model.addAttribute("tags", personality.getOrDefault("tags", List.of()));
+                    return "profile"; // ✅ 여기서 이제 profile.html을 렌더링
+                })
+                .exceptionally(e -> {
+                    model.addAttribute("error", "프로필 조회 실패: " + rootCause(e).getMessage());
+                    return "profile";
+                });
     }
 
     // [2] 프로필 수정 페이지 (기존 profile.html → profileEdit.html로 이동)
@@ -89,23 +95,34 @@ public class ProfileController {
     // [4] API: 프로필 데이터 조회 (React 등에서 사용 가능)
     @GetMapping("/api/profile")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> apiProfile() {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> apiProfile() {
         String userEmail = getCurrentUserEmail();
         if (userEmail == null) {
-            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body(Map.of("error", "Unauthorized")));
         }
 
-        try {
-            Map<String, Object> profile = firebaseAuthService.getUserProfile(userEmail);
-            return ResponseEntity.ok(Map.of("userEmail", userEmail, "profile", profile));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", "Profile fetch failed"));
+        return firebaseAuthService.getUserProfileAsync(userEmail)
+                .thenApply(profile -> ResponseEntity.ok(Map.<String, Object>of("userEmail", userEmail, "profile", profile)))
+                .exceptionally(e -> ResponseEntity.status(500).body(Map.of("error", "Profile fetch failed")));
+    }
+
+    // [5] API: 채팅 목록 등에 띄울 상대 썸네일 (email → avatar URL)
+    @GetMapping("/api/profile/avatars")
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<Map<String, String>>> apiAvatars(@RequestParam List<String> emails) {
+        if (emails.size() > MAX_AVATAR_EMAILS) {
+            throw new IllegalArgumentException("한 번에 최대 " + MAX_AVATAR_EMAILS + "명까지 조회할 수 있습니다.");
         }
+        return firebaseAuthService.getAvatarUrlsAsync(emails).thenApply(ResponseEntity::ok);
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        return (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
     }
 
     private String getCurrentUserEmail() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return (auth != null) ? (String) auth.getPrincipal() : null;
+        return (auth != null) ? auth.getName() : null;
     }
 
     @PostMapping("/api/profile/upload-image")
@@ -115,13 +132,19 @@ public class ProfileController {
         if (email == null) return ResponseEntity.status(401).body("Unauthorized");
 
         try {
-            String userId = firebaseAuthService.getUserByEmail(email).getUid();
-            String imageUrl = firebaseStorageService.uploadProfileImage(file, userId);
+            String userId = firebaseAuthService.getUid(email);
+            UploadedImage image = firebaseStorageService.uploadProfileImage(file, userId);
 
             // Storage URL을 Firebase DB에 저장
-            firebaseAuthService.updateProfileImageUrl(email, imageUrl);
-
-            return ResponseEntity.ok(Map.of("imageUrl", imageUrl));
+            firebaseAuthService.updateProfileImage(email, image);
+            // 썸네일 생성 + 이전 이미지 정리는 응답 뒤에 진행
+            profileImagePipeline.submit(userId, email, image);
+
+            return ResponseEntity.ok(Map.of("imageUrl", image.url(), "deduplicated", image.deduplicated()));
+        } catch (IllegalArgumentException e) {
+            // 형식/크기 검증 실패
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", "업로드 실패: " + e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("success", false, "message", "업로드 실패: " + e.getMessage()));
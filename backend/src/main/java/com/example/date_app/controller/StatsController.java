@@ -0,0 +1,139 @@
+package com.example.date_app.controller;
+
+import com.example.date_app.service.ChatHistoryService;
+import com.example.date_app.service.ChatService;
+import com.example.date_app.service.ChatStreamGateway;
+import com.example.date_app.service.FirebaseStorageService;
+import com.example.date_app.service.ProfileCache;
+import com.example.date_app.service.ProfileImagePipeline;
+import com.example.date_app.service.ProfileIndex;
+import com.example.date_app.service.RecommendationDeltaEngine;
+import com.example.date_app.service.RecommendationRefresher;
+import com.example.date_app.service.RecommendationStore;
+import com.example.date_app.service.UidResolver;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final ProfileIndex profileIndex;
+    private final UidResolver uidResolver;
+    private final ProfileCache profileCache;
+    private final RecommendationStore recommendationStore;
+    private final RecommendationRefresher recommendationRefresher;
+    private final RecommendationDeltaEngine recommendationDeltaEngine;
+    private final FirebaseStorageService firebaseStorageService;
+    private final ProfileImagePipeline profileImagePipeline;
+    private final ChatStreamGateway chatStreamGateway;
+    private final ChatHistoryService chatHistoryService;
+    private final ChatService chatService;
+
+    @GetMapping("/profile-index")
+    public Map<String, Object> profileIndexStats() {
+        return Map.of(
+                "ready", profileIndex.isReady(),
+                "size", profileIndex.size(),
+                "lastUpdateLagMillis", profileIndex.getLastUpdateLagMillis(),
+                "rebuildCount", profileIndex.getRebuildCount(),
+                "candidateIndexBytes", profileIndex.candidateIndex().sizeInBytes()
+        );
+    }
+
+    @GetMapping("/recommendation-store")
+    public Map<String, Object> recommendationStoreStats() {
+        return Map.of(
+                "size", recommendationStore.size(),
+                "servedFromStore", recommendationStore.getServedFromStore(),
+                "servedOnDemand", recommendationStore.getServedOnDemand(),
+                "lastRefreshUsers", recommendationRefresher.getLastRefreshUsers(),
+                "lastRefreshMillis", recommendationRefresher.getLastRefreshMillis(),
+                "lastRefreshLagMillis", recommendationRefresher.getLastRefreshLagMillis(),
+                "deltaCount", recommendationDeltaEngine.getAppliedCount(),
+                "lastDeltaMillis", recommendationDeltaEngine.getLastDeltaMillis()
+        );
+    }
+
+    @GetMapping("/uploads")
+    public Map<String, Object> uploadStats() {
+        int inFlight = firebaseStorageService.getInFlight();
+        return Map.of(
+                "inFlight", inFlight,
+                "peakInFlight", firebaseStorageService.getPeakInFlight(),
+                "perUploadBufferBytes", firebaseStorageService.getPerUploadBufferBytes(),
+                "inFlightBufferBytes", inFlight * firebaseStorageService.getPerUploadBufferBytes(),
+                "completedCount", firebaseStorageService.getCompletedCount(),
+                "rejectedCount", firebaseStorageService.getRejectedCount(),
+                "deduplicatedCount", firebaseStorageService.getDeduplicatedCount(),
+                "uploadedBytes", firebaseStorageService.getUploadedBytes()
+        );
+    }
+
+    @GetMapping("/image-pipeline")
+    public Map<String, Object> imagePipelineStats() {
+        return Map.of(
+                "queued", profileImagePipeline.getQueued(),
+                "active", profileImagePipeline.getActive(),
+                "processedCount", profileImagePipeline.getProcessedCount(),
+                "failedCount", profileImagePipeline.getFailedCount(),
+                "rejectedCount", profileImagePipeline.getRejectedCount(),
+                "garbageCollectedBlobs", profileImagePipeline.getGarbageCollectedBlobs(),
+                "lastProcessMillis", profileImagePipeline.getLastProcessMillis()
+        );
+    }
+
+    @GetMapping("/chat-stream")
+    public Map<String, Object> chatStreamStats() {
+        return Map.of(
+                "topics", chatStreamGateway.getTopicCount(),
+                "connections", chatStreamGateway.getOpenConnections(),
+                "upstreamEvents", chatStreamGateway.getUpstreamEvents(),
+                "sentEvents", chatStreamGateway.getSentEvents(),
+                "coalescedEvents", chatStreamGateway.getCoalescedEvents(),
+                "overflowDisconnects", chatStreamGateway.getOverflowDisconnects()
+        );
+    }
+
+    @GetMapping("/chat-unread")
+    public Map<String, Object> chatUnreadStats() {
+        return Map.of(
+                "bufferedIncrements", chatService.getBufferedIncrements(),
+                "flushCount", chatService.getFlushCount(),
+                "flushedCounters", chatService.getFlushedCounters(),
+                "failedFlushes", chatService.getFailedFlushes()
+        );
+    }
+
+    @GetMapping("/chat-history")
+    public Map<String, Object> chatHistoryStats() {
+        return cacheStats(chatHistoryService.size(), chatHistoryService.stats());
+    }
+
+    @GetMapping("/uid-cache")
+    public Map<String, Object> uidCacheStats() {
+        return cacheStats(uidResolver.size(), uidResolver.stats());
+    }
+
+    @GetMapping("/profile-cache")
+    public Map<String, Object> profileCacheStats() {
+        return cacheStats(profileCache.size(), profileCache.stats());
+    }
+
+    private static Map<String, Object> cacheStats(long size, CacheStats stats) {
+        return Map.of(
+                "size", size,
+                "hitCount", stats.hitCount(),
+                "missCount", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictionCount", stats.evictionCount(),
+                "averageLoadPenaltyMillis", stats.averageLoadPenalty() / 1_000_000.0
+        );
+    }
+}
@@ -0,0 +1,10 @@
+// ChatMessageRequest.java
+package com.example.date_app.dto;
+
+import lombok.Data;
+
+@Data
+public class ChatMessageRequest {
+    private String to;   // 상대방 email
+    private String text;
+}
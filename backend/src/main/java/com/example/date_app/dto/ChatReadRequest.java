@@ -0,0 +1,10 @@
+// ChatReadRequest.java
+package com.example.date_app.dto;
+
+import lombok.Data;
+
+@Data
+public class ChatReadRequest {
+    private String with;              // 상대방 email
+    private String lastReadMessageId; // 마지막으로 본 메시지 ID. 없으면 방의 마지막 메시지까지 읽은 것으로 처리
+}
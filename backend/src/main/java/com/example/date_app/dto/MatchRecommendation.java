@@ -1,5 +1,6 @@
 package com.example.date_app.dto;
 
+import com.example.date_app.model.Candidate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -12,4 +13,12 @@ public class MatchRecommendation {
     private String name;
     private String mbti;
     private int score;
+    // 목록/카드에는 원본 대신 파생 이미지(avatar 128px, card 480px)를 쓴다. 아직 없으면 원본 URL
+    private String avatarImage;
+    private String cardImage;
+
+    public static MatchRecommendation of(Candidate candidate, int score) {
+        return new MatchRecommendation(candidate.email(), candidate.name(), candidate.mbtiType(), score,
+                candidate.avatarImage(), candidate.cardImage());
+    }
 }
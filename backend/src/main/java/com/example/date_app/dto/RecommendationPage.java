@@ -0,0 +1,14 @@
+package com.example.date_app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class RecommendationPage {
+    private List<MatchRecommendation> items;
+    private String nextCursor; // 마지막 페이지면 null
+    private long computedAt;   // 순위를 계산한 시각(epoch ms). 사전 계산된 목록이면 그 계산 시각
+}
@@ -0,0 +1,26 @@
+// com/example/date_app/model/Candidate.java
+package com.example.date_app.model;
+
+/**
+ * 점수 계산용으로 미리 인코딩해 둔 후보 프로필.
+ * RTDB 원본 Map 을 매 요청마다 다시 해석하지 않도록 프로필 변경 시 한 번만 만든다.
+ *
+ * @param mbtiType  화면에 내려줄 원래 mbti 문자열
+ * @param mbti      MbtiCompatibility 서수 (모르면 -1)
+ * @param tagBits   tags 비트셋
+ * @param eligible  이름과 mbti 가 모두 입력된 프로필인지
+ * @param avatarImage 화면에 내려줄 썸네일 URL
+ * @param cardImage   화면에 내려줄 카드 이미지 URL
+ */
+public record Candidate(
+        String email,
+        String name,
+        String gender,
+        String mbtiType,
+        int mbti,
+        long[] tagBits,
+        boolean eligible,
+        String avatarImage,
+        String cardImage
+) {
+}
@@ -0,0 +1,30 @@
+// com/example/date_app/model/Mbti.java
+package com.example.date_app.model;
+
+import com.example.date_app.util.MbtiCompatibility;
+
+/**
+ * MBTI 16 유형. 선언 순서 = MbtiCompatibility 의 4비트 서수(E=8, S=4, F=2, P=1)이므로 ordinal() 을 그대로 점수표에 쓴다.
+ */
+public enum Mbti {
+    INTJ, INTP, INFJ, INFP, ISTJ, ISTP, ISFJ, ISFP,
+    ENTJ, ENTP, ENFJ, ENFP, ESTJ, ESTP, ESFJ, ESFP;
+
+    private static final Mbti[] BY_CODE = values();
+
+    /** "ENFP" → ENFP. 대문자 4글자 유효 유형이 아니면 null */
+    public static Mbti parse(String value) {
+        int code = MbtiCompatibility.encode(value);
+        return code == MbtiCompatibility.UNKNOWN ? null : BY_CODE[code];
+    }
+
+    /** MbtiCompatibility 서수 */
+    public int code() {
+        return ordinal();
+    }
+
+    /** null 이면 MbtiCompatibility.UNKNOWN */
+    public static int codeOf(Mbti mbti) {
+        return mbti == null ? MbtiCompatibility.UNKNOWN : mbti.ordinal();
+    }
+}
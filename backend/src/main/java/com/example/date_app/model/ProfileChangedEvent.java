@@ -0,0 +1,14 @@
+// com/example/date_app/model/ProfileChangedEvent.java
+package com.example.date_app.model;
+
+/**
+ * ProfileIndex 가 초기 로드 이후 프로필 추가/변경/삭제를 반영했을 때 발행하는 이벤트.
+ *
+ * @param profile 변경된 프로필. 삭제되었으면 null
+ */
+public record ProfileChangedEvent(String uid, String email, UserProfile profile) {
+
+    public boolean removed() {
+        return profile == null;
+    }
+}
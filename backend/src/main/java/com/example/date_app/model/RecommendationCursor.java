@@ -0,0 +1,34 @@
+// com/example/date_app/model/RecommendationCursor.java
+package com.example.date_app.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 추천 목록 페이지 커서. 마지막으로 내려준 항목의 (score, email) 을 담는다.
+ * 정렬 순서는 score 내림차순 → email 오름차순이므로, 다음 페이지는 이 위치 "뒤"의 항목만 고르면 된다.
+ * 클라이언트에는 base64url 문자열로만 노출한다.
+ */
+public record RecommendationCursor(int score, String email) {
+
+    public String encode() {
+        String raw = score + ":" + email;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecommendationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new RecommendationCursor(Integer.parseInt(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 cursor 값입니다.", e);
+        }
+    }
+
+    /** (score, email) 항목이 정렬 순서상 이 커서보다 뒤에 오는지 */
+    public boolean isBefore(int otherScore, String otherEmail) {
+        if (otherScore != score) return otherScore < score;
+        return otherEmail.compareTo(email) > 0;
+    }
+}
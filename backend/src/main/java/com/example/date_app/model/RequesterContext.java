@@ -0,0 +1,18 @@
+// com/example/date_app/model/RequesterContext.java
+package com.example.date_app.model;
+
+/**
+ * 추천을 요청한 사용자 정보. 요청당 한 번만 만들고 후보 전체 점수 계산에 재사용한다.
+ *
+ * @param mbti         MbtiCompatibility 서수 (모르면 -1)
+ * @param tagBits      내 tags 비트셋
+ * @param likeTagBits  내 likeTags 비트셋 — 상대 tags 와의 교집합이 점수에 더해진다
+ */
+public record RequesterContext(
+        String email,
+        String gender,
+        int mbti,
+        long[] tagBits,
+        long[] likeTagBits
+) {
+}
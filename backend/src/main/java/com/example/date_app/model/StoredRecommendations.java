@@ -0,0 +1,16 @@
+// com/example/date_app/model/StoredRecommendations.java
+package com.example.date_app.model;
+
+import com.example.date_app.dto.MatchRecommendation;
+
+import java.util.List;
+
+/**
+ * 한 사용자에 대해 미리 계산해 둔 상위 N 명 추천 목록.
+ *
+ * @param items      RANKING 순서로 정렬된 목록
+ * @param computedAt 계산 시각(epoch ms)
+ * @param complete   후보 전체가 N 명 안에 들어왔으면 true. 이때는 목록 끝 = 추천 목록 끝이다.
+ */
+public record StoredRecommendations(List<MatchRecommendation> items, long computedAt, boolean complete) {
+}
@@ -0,0 +1,16 @@
+// com/example/date_app/model/UploadedImage.java
+package com.example.date_app.model;
+
+import com.example.date_app.util.ImageFormat;
+
+/**
+ * Storage 에 올라간 프로필 원본 이미지.
+ *
+ * @param blobName     profileImages/{uid}/{sha256}
+ * @param url          다운로드 URL
+ * @param sha256       원본 내용 해시(hex). 같은 내용이면 같은 blob 을 다시 쓴다
+ * @param format       매직 바이트로 판별한 형식
+ * @param deduplicated 이미 같은 내용의 blob 이 있어 업로드를 건너뛰었으면 true
+ */
+public record UploadedImage(String blobName, String url, String sha256, ImageFormat format, boolean deduplicated) {
+}
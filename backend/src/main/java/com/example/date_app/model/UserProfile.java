@@ -0,0 +1,54 @@
+// com/example/date_app/model/UserProfile.java
+package com.example.date_app.model;
+
+import java.time.LocalDate;
+
+/**
+ * RTDB users/{uid} 를 한 번 해석해 둔 불변 프로필.
+ * 중첩 Map 대신 필드로 들고 있어서, 추천/색인 코드가 매번 getOrDefault 와 캐스팅을 반복하지 않는다.
+ * 태그는 TagDictionary ID 비트셋으로만 보관하므로 같은 태그 문자열을 프로필마다 따로 들고 있지 않는다.
+ *
+ * @param gender            원래 값 그대로 (없으면 null)
+ * @param birthdateEpochDay 생년월일(yyyy-MM-dd) 의 epoch day. 없거나 형식이 다르면 {@link #UNKNOWN_BIRTHDATE}
+ * @param avatarImage       목록용 정사각형 썸네일 URL (없으면 profileImage)
+ * @param cardImage         추천 카드용 URL (없으면 profileImage)
+ * @param mbti              유효한 유형이 아니면 null
+ * @param mbtiType          화면에 내려줄 mbti 문자열. 유효한 유형이면 enum 이름을 공유한다
+ * @param tagBits           tags 비트셋
+ * @param likeTagBits       likeTags 비트셋
+ */
+public record UserProfile(
+        String email,
+        String name,
+        String gender,
+        String bio,
+        int birthdateEpochDay,
+        String profileImage,
+        String avatarImage,
+        String cardImage,
+        Mbti mbti,
+        String mbtiType,
+        long[] tagBits,
+        long[] likeTagBits
+) {
+
+    public static final int UNKNOWN_BIRTHDATE = Integer.MIN_VALUE;
+
+    /** 이름과 mbti 가 모두 입력되어 추천 대상이 될 수 있는 프로필인지 */
+    public boolean eligible() {
+        return email != null && name != null && !name.isBlank() && mbtiType != null && !mbtiType.isBlank();
+    }
+
+    public LocalDate birthdate() {
+        return birthdateEpochDay == UNKNOWN_BIRTHDATE ? null : LocalDate.ofEpochDay(birthdateEpochDay);
+    }
+
+    public Candidate toCandidate() {
+        return new Candidate(email, name, gender, mbtiType, Mbti.codeOf(mbti), tagBits, eligible(), avatarImage, cardImage);
+    }
+
+    /** 이 프로필 사용자가 추천을 요청할 때의 컨텍스트. email 은 인증된 값을 그대로 쓴다. */
+    public RequesterContext toRequester(String requesterEmail) {
+        return new RequesterContext(requesterEmail, gender == null ? "" : gender, Mbti.codeOf(mbti), tagBits, likeTagBits);
+    }
+}
@@ -0,0 +1,6 @@
+// com/example/date_app/model/VerifiedIdentity.java
+package com.example.date_app.model;
+
+/** 검증된 클라이언트 ID 토큰의 사용자 정보 */
+public record VerifiedIdentity(String uid, String email) {
+}
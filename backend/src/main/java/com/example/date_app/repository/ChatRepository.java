@@ -0,0 +1,83 @@
+// com/example/date_app/repository/ChatRepository.java
+package com.example.date_app.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * chats / chat_list / user_rooms 저장소. 키는 {@link com.example.date_app.util.ChatKeys#safeEmail} 로 치환한 email 을 쓴다.
+ */
+public interface ChatRepository {
+
+    /**
+     * 루트 기준 다중 경로 갱신 (updateChildren). 모든 경로가 한 번에 반영되거나 하나도 반영되지 않는다. 값이 null 이면 삭제
+     */
+    CompletableFuture<Void> commit(Map<String, Object> updates);
+
+    /** chat_list/{safeEmail}/{roomId}/unreadCount. 없으면 0 */
+    CompletableFuture<Long> unreadCount(String safeEmail, String roomId);
+
+    /** chats/{roomId}/readState/{safeEmail}. 아직 없으면(watermark 도입 전 방) null */
+    CompletableFuture<Map<String, Object>> readState(String roomId, String safeEmail);
+
+    /**
+     * chats/{roomId}/messages 중 키가 afterKey 보다 크고 endAtKey 이하인 메시지를 키 순으로 읽는다.
+     * afterKey / endAtKey 가 null 이면 그쪽 경계를 두지 않는다.
+     */
+    CompletableFuture<LinkedHashMap<String, Map<String, Object>>> messages(String roomId, String afterKey, String endAtKey);
+
+    /**
+     * chats/{roomId}/messages 중 키가 beforeKey 보다 작은 마지막 limit 개를 키 순으로 읽는다 (beforeKey 가 null 이면 최근 limit 개).
+     * 방이 아무리 길어도 한 번에 limit 개만 읽는다.
+     */
+    CompletableFuture<LinkedHashMap<String, Map<String, Object>>> messagesBefore(String roomId, String beforeKey, int limit);
+
+    /** 방의 마지막 메시지 키. 메시지가 없으면 null */
+    CompletableFuture<String> lastMessageKey(String roomId);
+
+    /** chats/{roomId}/members. 아직 없으면 null */
+    CompletableFuture<Map<String, Object>> members(String roomId);
+
+    /**
+     * chats/{roomId}/members 가 비어 있을 때만 members 를 기록한다 (트랜잭션). 기록 여부와 관계없이 최종 값으로 완료된다.
+     * 동시에 다른 값으로 기록하려 해도 하나만 남는다.
+     */
+    CompletableFuture<Map<String, Object>> claimMembers(String roomId, Map<String, Object> members);
+
+    /**
+     * path 바로 아래 자식의 추가/변경/삭제를 구독한다. 기존 자식이 먼저 onUpsert 로 전달된다.
+     * limitToLast 가 0 보다 크면 키 순으로 마지막 N 개부터 받고, 삭제는 전달하지 않는다
+     * (창에서 밀려난 자식과 실제 삭제를 구분할 수 없으므로).
+     */
+    Subscription watchChildren(String path, int limitToLast, ChildListener listener);
+
+    /**
+     * user_rooms/{safeEmail} 역색인에 있는 채팅방만 삭제한다 (chats 전체를 읽지 않는다).
+     * 채팅방, 상대방 쪽 역색인 항목, 자신의 역색인을 한 번의 다중 경로 갱신으로 지운다. 삭제한 방 수로 완료된다.
+     * 키가 safeEmail 과 기록된 상대로 만든 방 ID 가 아닌 항목은 남의 방을 가리킬 수 있어 건너뛴다 (역색인 자체는 지운다).
+     */
+    CompletableFuture<Integer> deleteRoomsOf(String safeEmail);
+
+    /**
+     * safeEmail 사용자의 chat_list 와, 그 안에 기록된 대화 상대들의 chat_list 속 같은 방 항목을 삭제한다.
+     * 자신의 chat_list 하나만 읽고 한 번의 다중 경로 갱신으로 지운다. 삭제한 chat_list 항목 수로 완료된다.
+     * 상대 쪽 항목은 방 ID 가 safeEmail 과 with 로 만든 방 ID 와 같을 때만 지운다.
+     */
+    CompletableFuture<Integer> deleteChatListOf(String safeEmail);
+
+    /**
+     * 역색인이 생기기 전에 만들어진 채팅방을 chat_list 로부터 user_rooms 에 채운다. 채운 항목 수로 완료된다.
+     * chat_list 전체를 한 번 읽으므로 배포 직후 한 번만 실행한다.
+     */
+    CompletableFuture<Integer> backfillUserRooms();
+
+    interface ChildListener {
+
+        void onUpsert(String key, Map<String, Object> value);
+
+        void onRemove(String key);
+
+        void onError(String message);
+    }
+}
@@ -0,0 +1,247 @@
+// com/example/date_app/repository/FirebaseChatRepository.java
+package com.example.date_app.repository;
+
+import com.example.date_app.util.FirebaseFutures;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.date_app.util.ChatKeys.*;
+
+@Component
+@Profile("!inmemory")
+public class FirebaseChatRepository implements ChatRepository {
+
+    @Value("${firebase.read-timeout-ms:5000}")
+    private long readTimeoutMillis;
+
+    @Override
+    public CompletableFuture<Void> commit(Map<String, Object> updates) {
+        return FirebaseFutures.toCompletable(FirebaseDatabase.getInstance().getReference().updateChildrenAsync(updates));
+    }
+
+    @Override
+    public CompletableFuture<Long> unreadCount(String safeEmail, String roomId) {
+        DatabaseReference ref = FirebaseDatabase.getInstance().getReference(CHAT_LIST)
+                .child(safeEmail).child(roomId).child("unreadCount");
+        return FirebaseFutures.readOnce(ref, readTimeoutMillis)
+                .thenApply(snapshot -> snapshot != null && snapshot.getValue() instanceof Number n ? n.longValue() : 0L);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> readState(String roomId, String safeEmail) {
+        DatabaseReference ref = FirebaseDatabase.getInstance().getReference(CHATS)
+                .child(roomId).child(READ_STATE).child(safeEmail);
+        return FirebaseFutures.readOnce(ref, readTimeoutMillis)
+                .thenApply(snapshot -> snapshot != null && snapshot.getValue() instanceof Map
+                        ? (Map<String, Object>) snapshot.getValue()
+                        : null);
+    }
+
+    @Override
+    public CompletableFuture<LinkedHashMap<String, Map<String, Object>>> messages(String roomId, String afterKey, String endAtKey) {
+        Query query = FirebaseDatabase.getInstance().getReference(CHATS).child(roomId).child("messages").orderByKey();
+        // 9.2.0 에는 startAfter 가 없으므로 startAt 으로 읽고 경계 키를 뺀다
+        if (afterKey != null) query = query.startAt(afterKey);
+        if (endAtKey != null) query = query.endAt(endAtKey);
+        return FirebaseFutures.readOnce(query, readTimeoutMillis).thenApply(snapshot -> {
+            LinkedHashMap<String, Map<String, Object>> result = new LinkedHashMap<>();
+            if (snapshot == null) return result;
+            for (DataSnapshot child : snapshot.getChildren()) {
+                if (child.getKey() == null || child.getKey().equals(afterKey)) continue;
+                if (child.getValue() instanceof Map) result.put(child.getKey(), (Map<String, Object>) child.getValue());
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<LinkedHashMap<String, Map<String, Object>>> messagesBefore(String roomId, String beforeKey, int limit) {
+        Query query = FirebaseDatabase.getInstance().getReference(CHATS).child(roomId).child("messages").orderByKey();
+        // 9.2.0 에는 endBefore 가 없으므로 endAt 으로 하나 더 읽고 경계 키를 뺀다
+        query = beforeKey != null ? query.endAt(beforeKey).limitToLast(limit + 1) : query.limitToLast(limit);
+        return FirebaseFutures.readOnce(query, readTimeoutMillis).thenApply(snapshot -> {
+            LinkedHashMap<String, Map<String, Object>> result = new LinkedHashMap<>();
+            if (snapshot == null) return result;
+            for (DataSnapshot child : snapshot.getChildren()) {
+                if (child.getKey() == null || child.getKey().equals(beforeKey)) continue;
+                if (child.getValue() instanceof Map) result.put(child.getKey(), (Map<String, Object>) child.getValue());
+            }
+            // beforeKey 가 없는 키였으면 limit + 1 개가 모두 남으므로 가장 오래된 것을 뺀다
+            if (result.size() > limit) result.remove(result.keySet().iterator().next());
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> lastMessageKey(String roomId) {
+        Query query = FirebaseDatabase.getInstance().getReference(CHATS).child(roomId).child("messages")
+                .orderByKey().limitToLast(1);
+        return FirebaseFutures.readOnce(query, readTimeoutMillis).thenApply(snapshot -> {
+            if (snapshot == null) return null;
+            String last = null;
+            for (DataSnapshot child : snapshot.getChildren()) last = child.getKey();
+            return last;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> members(String roomId) {
+        DatabaseReference ref = FirebaseDatabase.getInstance().getReference(CHATS).child(roomId).child(MEMBERS);
+        // 취소를 "아직 없음"으로 읽으면 그 뒤의 claimMembers 가 실패하거나 엉뚱한 판단을 하므로 실패로 둔다
+        return FirebaseFutures.readOnceOrFail(ref, readTimeoutMillis)
+                .thenApply(snapshot -> snapshot.getValue() instanceof Map
+                        ? (Map<String, Object>) snapshot.getValue()
+                        : null);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> claimMembers(String roomId, Map<String, Object> members) {
+        DatabaseReference ref = FirebaseDatabase.getInstance().getReference(CHATS).child(roomId).child(MEMBERS);
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        // 9.2.0 에는 조건부 쓰기가 없어 트랜잭션으로 "없을 때만" 기록한다. 처음에는 로컬 값(null)으로 돌고 서버 값으로 다시 돈다
+        ref.runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData current) {
+                if (current.getValue() == null) current.setValue(members);
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    future.completeExceptionally(error.toException());
+                } else {
+                    future.complete(snapshot != null && snapshot.getValue() instanceof Map
+                            ? (Map<String, Object>) snapshot.getValue()
+                            : null);
+                }
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public Subscription watchChildren(String path, int limitToLast, ChildListener listener) {
+        DatabaseReference ref = FirebaseDatabase.getInstance().getReference(path);
+        Query query = limitToLast > 0 ? ref.orderByKey().limitToLast(limitToLast) : ref;
+        ChildEventListener childListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot);
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot);
+            }
+
+            @Override
+            public void onChildRemoved(DataSnapshot snapshot) {
+                if (limitToLast <= 0 && snapshot.getKey() != null) listener.onRemove(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+                // 정렬 순서는 사용하지 않음
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+
+            private void upsert(DataSnapshot snapshot) {
+                if (snapshot.getKey() != null && snapshot.getValue() instanceof Map) {
+                    listener.onUpsert(snapshot.getKey(), (Map<String, Object>) snapshot.getValue());
+                }
+            }
+        };
+        query.addChildEventListener(childListener);
+        return () -> query.removeEventListener(childListener);
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteRoomsOf(String safeEmail) {
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        return FirebaseFutures.readOnce(root.child(USER_ROOMS).child(safeEmail), readTimeoutMillis).thenCompose(snapshot -> {
+            if (snapshot == null || !snapshot.hasChildren()) return CompletableFuture.completedFuture(0);
+
+            Map<String, Object> updates = new HashMap<>();
+            int rooms = 0;
+            for (DataSnapshot room : snapshot.getChildren()) {
+                // 역색인은 클라이언트도 쓰므로, 키가 이 사용자와 기록된 상대의 방 ID 인 항목만 믿는다
+                if (room.getValue() instanceof String partnerEmail && !partnerEmail.equals(safeEmail)
+                        && roomId(safeEmail, partnerEmail).equals(room.getKey())) {
+                    rooms++;
+                    updates.put(CHATS + "/" + room.getKey(), null);
+                    updates.put(USER_ROOMS + "/" + partnerEmail + "/" + room.getKey(), null);
+                }
+            }
+
+            updates.put(USER_ROOMS + "/" + safeEmail, null);
+            int deleted = rooms;
+            return FirebaseFutures.toCompletable(root.updateChildrenAsync(updates)).thenApply(v -> deleted);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteChatListOf(String safeEmail) {
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        return FirebaseFutures.readOnce(root.child(CHAT_LIST).child(safeEmail), readTimeoutMillis).thenCompose(snapshot -> {
+            Map<String, Object> updates = new HashMap<>();
+            int entries = 0;
+            if (snapshot != null) {
+                for (DataSnapshot room : snapshot.getChildren()) {
+                    entries++;
+                    // 상대방 chat_list 의 같은 방 항목: chat_list/{상대}/{roomId}.
+                    // with 는 클라이언트가 쓰는 값이라 방 ID 가 두 사람의 방과 같을 때만 상대 쪽을 지운다
+                    Object with = room.child("with").getValue();
+                    if (with instanceof String withEmail && !safeEmail(withEmail).equals(safeEmail)
+                            && roomId(safeEmail, withEmail).equals(room.getKey())) {
+                        updates.put(CHAT_LIST + "/" + safeEmail(withEmail) + "/" + room.getKey(), null);
+                        entries++;
+                    }
+                }
+            }
+            if (entries == 0) return CompletableFuture.completedFuture(0);
+
+            updates.put(CHAT_LIST + "/" + safeEmail, null);
+            int deleted = entries;
+            return FirebaseFutures.toCompletable(root.updateChildrenAsync(updates)).thenApply(v -> deleted);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> backfillUserRooms() {
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        return FirebaseFutures.readOnce(root.child(CHAT_LIST), readTimeoutMillis).thenCompose(snapshot -> {
+            Map<String, Object> updates = new HashMap<>();
+            if (snapshot != null) {
+                for (DataSnapshot userEntry : snapshot.getChildren()) {
+                    for (DataSnapshot room : userEntry.getChildren()) {
+                        Object with = room.child("with").getValue();
+                        if (with instanceof String withEmail) {
+                            updates.put(USER_ROOMS + "/" + userEntry.getKey() + "/" + room.getKey(), safeEmail(withEmail));
+                        }
+                    }
+                }
+            }
+            if (updates.isEmpty()) return CompletableFuture.completedFuture(0);
+            return FirebaseFutures.toCompletable(root.updateChildrenAsync(updates)).thenApply(v -> updates.size());
+        });
+    }
+}
@@ -0,0 +1,47 @@
+// com/example/date_app/repository/FirebaseIdentityProvider.java
+package com.example.date_app.repository;
+
+import com.example.date_app.model.VerifiedIdentity;
+import com.example.date_app.util.FirebaseFutures;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.UserRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@Profile("!inmemory")
+public class FirebaseIdentityProvider implements IdentityProvider {
+
+    // Admin SDK 응답 대기 상한. Firebase 가 멈춰도 요청이 무한정 붙잡히지 않도록 한다.
+    @Value("${firebase.read-timeout-ms:5000}")
+    private long readTimeoutMillis;
+
+    @Override
+    public CompletableFuture<String> createUser(String email, String password) {
+        UserRecord.CreateRequest request = new UserRecord.CreateRequest()
+                .setEmail(email)
+                .setPassword(password);
+        return FirebaseFutures.toCompletable(FirebaseAuth.getInstance().createUserAsync(request))
+                .thenApply(UserRecord::getUid);
+    }
+
+    @Override
+    public CompletableFuture<String> getUidByEmail(String email) {
+        return FirebaseFutures.toCompletable(FirebaseAuth.getInstance().getUserByEmailAsync(email), readTimeoutMillis)
+                .thenApply(UserRecord::getUid);
+    }
+
+    @Override
+    public CompletableFuture<VerifiedIdentity> verifyIdToken(String idToken) {
+        return FirebaseFutures.toCompletable(FirebaseAuth.getInstance().verifyIdTokenAsync(idToken), readTimeoutMillis)
+                .thenApply(token -> new VerifiedIdentity(token.getUid(), token.getEmail()));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteUser(String uid) {
+        return FirebaseFutures.toCompletable(FirebaseAuth.getInstance().deleteUserAsync(uid));
+    }
+}
@@ -0,0 +1,120 @@
+// com/example/date_app/repository/FirebaseProfileRepository.java
+package com.example.date_app.repository;
+
+import com.example.date_app.util.FirebaseFutures;
+import com.google.firebase.database.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@Profile("!inmemory")
+public class FirebaseProfileRepository implements ProfileRepository {
+
+    @Value("${firebase.read-timeout-ms:5000}")
+    private long readTimeoutMillis;
+
+    private static DatabaseReference users() {
+        return FirebaseDatabase.getInstance().getReference("users");
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> find(String uid) {
+        // 조회 취소를 "프로필 없음"으로 돌려주면 기본값 프로필이 ProfileCache 에 TTL 동안 남는다
+        return FirebaseFutures.readOnceOrFail(users().child(uid), readTimeoutMillis)
+                .thenApply(snapshot -> snapshot.getValue() instanceof Map
+                        ? (Map<String, Object>) snapshot.getValue()
+                        : null);
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> findAll() {
+        return FirebaseFutures.readOnce(users(), readTimeoutMillis)
+                .thenApply(snapshot -> {
+                    List<Map<String, Object>> resultList = new ArrayList<>();
+                    if (snapshot == null) return resultList;
+                    for (DataSnapshot child : snapshot.getChildren()) {
+                        Object value = child.getValue();
+                        if (value instanceof Map) {
+                            resultList.add((Map<String, Object>) value);
+                        }
+                    }
+                    return resultList;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> save(String uid, Map<String, Object> profile) {
+        return FirebaseFutures.toCompletable(users().child(uid).setValueAsync(profile));
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String uid, Map<String, Object> updates) {
+        return FirebaseFutures.toCompletable(users().child(uid).updateChildrenAsync(updates));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String uid) {
+        return FirebaseFutures.toCompletable(users().child(uid).removeValueAsync());
+    }
+
+    @Override
+    public Subscription watch(Listener listener) {
+        DatabaseReference usersRef = users();
+        ChildEventListener childListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot);
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot);
+            }
+
+            @Override
+            public void onChildRemoved(DataSnapshot snapshot) {
+                if (snapshot.getKey() != null) listener.onRemove(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+                // 정렬 순서는 사용하지 않음
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+
+            private void upsert(DataSnapshot snapshot) {
+                if (snapshot.getKey() == null) return;
+                if (snapshot.getValue() instanceof Map) {
+                    listener.onUpsert(snapshot.getKey(), (Map<String, Object>) snapshot.getValue());
+                } else {
+                    listener.onRemove(snapshot.getKey());
+                }
+            }
+        };
+        usersRef.addChildEventListener(childListener);
+
+        // 초기 데이터의 child 이벤트가 모두 전달된 뒤에 value 이벤트가 온다 → 초기 로드 완료 시점
+        usersRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                listener.onInitialLoad();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+        return () -> usersRef.removeEventListener(childListener);
+    }
+}
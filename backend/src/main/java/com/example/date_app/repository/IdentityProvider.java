@@ -0,0 +1,22 @@
+// com/example/date_app/repository/IdentityProvider.java
+package com.example.date_app.repository;
+
+import com.example.date_app.model.VerifiedIdentity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 계정(인증) 저장소. 실패는 FirebaseAuthException 으로 완료되어 기존 컨트롤러의 오류 처리를 그대로 쓴다.
+ */
+public interface IdentityProvider {
+
+    /** 계정을 만들고 UID 를 돌려준다. */
+    CompletableFuture<String> createUser(String email, String password);
+
+    /** email → UID. 없으면 USER_NOT_FOUND */
+    CompletableFuture<String> getUidByEmail(String email);
+
+    CompletableFuture<VerifiedIdentity> verifyIdToken(String idToken);
+
+    CompletableFuture<Void> deleteUser(String uid);
+}
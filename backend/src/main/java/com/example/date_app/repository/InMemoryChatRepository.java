@@ -0,0 +1,249 @@
+// com/example/date_app/repository/InMemoryChatRepository.java
+package com.example.date_app.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.date_app.util.ChatKeys.*;
+
+@Component
+@Profile("inmemory")
+@RequiredArgsConstructor
+public class InMemoryChatRepository implements ChatRepository {
+
+    private final InMemoryDatabase database;
+    // 감시 경로 → 구독자. DB 스레드에서만 읽고 쓴다
+    private final Map<String, List<Watch>> watches = new HashMap<>();
+
+    private record Watch(int limitToLast, ChildListener listener) {
+    }
+
+    @Override
+    public CompletableFuture<Void> commit(Map<String, Object> updates) {
+        return database.call(root -> {
+            apply(root, updates);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> unreadCount(String safeEmail, String roomId) {
+        return database.call(root -> InMemoryDatabase.get(root, CHAT_LIST + "/" + safeEmail + "/" + roomId + "/unreadCount")
+                instanceof Number n ? n.longValue() : 0L);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> readState(String roomId, String safeEmail) {
+        return database.call(root -> InMemoryDatabase.get(root, CHATS + "/" + roomId + "/" + READ_STATE + "/" + safeEmail)
+                instanceof Map<?, ?> state ? (Map<String, Object>) InMemoryDatabase.copy(state) : null);
+    }
+
+    @Override
+    public CompletableFuture<LinkedHashMap<String, Map<String, Object>>> messages(String roomId, String afterKey, String endAtKey) {
+        return database.call(root -> {
+            LinkedHashMap<String, Map<String, Object>> result = new LinkedHashMap<>();
+            if (InMemoryDatabase.get(root, CHATS + "/" + roomId + "/messages") instanceof Map<?, ?> messages) {
+                new TreeMap<>((Map<String, Object>) messages).forEach((key, value) -> {
+                    if (afterKey != null && key.compareTo(afterKey) <= 0) return;
+                    if (endAtKey != null && key.compareTo(endAtKey) > 0) return;
+                    if (value instanceof Map) result.put(key, (Map<String, Object>) InMemoryDatabase.copy(value));
+                });
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<LinkedHashMap<String, Map<String, Object>>> messagesBefore(String roomId, String beforeKey, int limit) {
+        return database.call(root -> {
+            LinkedHashMap<String, Map<String, Object>> result = new LinkedHashMap<>();
+            if (InMemoryDatabase.get(root, CHATS + "/" + roomId + "/messages") instanceof Map<?, ?> messages) {
+                TreeMap<String, Object> sorted = new TreeMap<>((Map<String, Object>) messages);
+                NavigableMap<String, Object> head = beforeKey != null ? sorted.headMap(beforeKey, false) : sorted;
+                List<String> keys = new ArrayList<>(head.keySet());
+                for (String key : keys.subList(Math.max(0, keys.size() - limit), keys.size())) {
+                    if (head.get(key) instanceof Map<?, ?> message) {
+                        result.put(key, (Map<String, Object>) InMemoryDatabase.copy(message));
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> lastMessageKey(String roomId) {
+        return database.call(root -> InMemoryDatabase.get(root, CHATS + "/" + roomId + "/messages") instanceof Map<?, ?> messages
+                && !messages.isEmpty()
+                ? new TreeMap<>((Map<String, Object>) messages).lastKey()
+                : null);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> members(String roomId) {
+        return database.call(root -> InMemoryDatabase.get(root, CHATS + "/" + roomId + "/" + MEMBERS)
+                instanceof Map<?, ?> members ? (Map<String, Object>) InMemoryDatabase.copy(members) : null);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> claimMembers(String roomId, Map<String, Object> members) {
+        String path = CHATS + "/" + roomId + "/" + MEMBERS;
+        // DB 스레드 하나에서 순서대로 실행되므로 읽고 쓰는 사이에 다른 기록이 끼어들지 않는다
+        return database.call(root -> {
+            if (!(InMemoryDatabase.get(root, path) instanceof Map)) {
+                apply(root, Map.of(path, members));
+            }
+            return (Map<String, Object>) InMemoryDatabase.copy(InMemoryDatabase.get(root, path));
+        });
+    }
+
+    @Override
+    public Subscription watchChildren(String path, int limitToLast, ChildListener listener) {
+        Watch watch = new Watch(limitToLast, listener);
+        database.call(root -> {
+            watches.computeIfAbsent(path, p -> new ArrayList<>()).add(watch);
+            if (InMemoryDatabase.get(root, path) instanceof Map<?, ?> children) {
+                List<Map.Entry<String, Object>> entries = new ArrayList<>(new TreeMap<>((Map<String, Object>) children).entrySet());
+                int from = limitToLast > 0 ? Math.max(0, entries.size() - limitToLast) : 0;
+                for (Map.Entry<String, Object> child : entries.subList(from, entries.size())) {
+                    if (child.getValue() instanceof Map) {
+                        listener.onUpsert(child.getKey(), (Map<String, Object>) InMemoryDatabase.copy(child.getValue()));
+                    }
+                }
+            }
+            return null;
+        });
+        // 해제도 call 로 넣어야 이후에 요청한 쓰기보다 먼저 처리된다
+        return () -> database.call(root -> {
+            List<Watch> list = watches.get(path);
+            if (list != null && list.remove(watch) && list.isEmpty()) watches.remove(path);
+            return null;
+        });
+    }
+
+    /** 다중 경로 갱신을 반영하고, 바뀐 자식을 감시 중인 구독자에게 DB 스레드에서 알린다. */
+    private void apply(Map<String, Object> root, Map<String, Object> updates) {
+        if (watches.isEmpty()) {
+            InMemoryDatabase.update(root, "", updates);
+            return;
+        }
+
+        // 감시 경로별로 영향을 받는 자식 키와 갱신 전 존재 여부
+        Map<String, Map<String, Boolean>> touched = new LinkedHashMap<>();
+        for (String path : updates.keySet()) {
+            for (String watched : watches.keySet()) {
+                Set<String> keys = new LinkedHashSet<>();
+                if (path.startsWith(watched + "/")) {
+                    keys.add(path.substring(watched.length() + 1).split("/", 2)[0]);
+                } else if (watched.equals(path) || watched.startsWith(path + "/")) {
+                    // 감시 노드가 통째로 바뀌거나 지워지는 경우
+                    if (InMemoryDatabase.get(root, watched) instanceof Map<?, ?> children) {
+                        children.keySet().forEach(k -> keys.add((String) k));
+                    }
+                    touched.computeIfAbsent(watched, w -> new LinkedHashMap<>()).putIfAbsent("", false);
+                }
+                for (String key : keys) {
+                    touched.computeIfAbsent(watched, w -> new LinkedHashMap<>())
+                            .putIfAbsent(key, InMemoryDatabase.get(root, watched + "/" + key) != null);
+                }
+            }
+        }
+
+        InMemoryDatabase.update(root, "", updates);
+
+        touched.forEach((watched, keys) -> {
+            // 통째로 바뀐 경우 새로 생긴 자식도 알린다
+            if (keys.remove("") != null && InMemoryDatabase.get(root, watched) instanceof Map<?, ?> children) {
+                children.keySet().forEach(k -> keys.putIfAbsent((String) k, false));
+            }
+            for (Watch watch : List.copyOf(watches.getOrDefault(watched, List.of()))) {
+                keys.forEach((key, existed) -> {
+                    Object value = InMemoryDatabase.get(root, watched + "/" + key);
+                    if (value instanceof Map) {
+                        watch.listener().onUpsert(key, (Map<String, Object>) InMemoryDatabase.copy(value));
+                    } else if (existed && watch.limitToLast() <= 0) {
+                        watch.listener().onRemove(key);
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteRoomsOf(String safeEmail) {
+        return database.call(root -> {
+            if (!(InMemoryDatabase.get(root, USER_ROOMS + "/" + safeEmail) instanceof Map<?, ?> userRooms)
+                    || userRooms.isEmpty()) {
+                return 0;
+            }
+            Map<String, Object> updates = new HashMap<>();
+            int rooms = 0;
+            for (Map.Entry<?, ?> room : userRooms.entrySet()) {
+                if (room.getValue() instanceof String partnerEmail && !partnerEmail.equals(safeEmail)
+                        && roomId(safeEmail, partnerEmail).equals(room.getKey())) {
+                    rooms++;
+                    updates.put(CHATS + "/" + room.getKey(), null);
+                    updates.put(USER_ROOMS + "/" + partnerEmail + "/" + room.getKey(), null);
+                }
+            }
+            updates.put(USER_ROOMS + "/" + safeEmail, null);
+            apply(root, updates);
+            return rooms;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteChatListOf(String safeEmail) {
+        return database.call(root -> {
+            Map<String, Object> updates = new HashMap<>();
+            int entries = 0;
+            if (InMemoryDatabase.get(root, CHAT_LIST + "/" + safeEmail) instanceof Map<?, ?> rooms) {
+                for (Map.Entry<?, ?> room : rooms.entrySet()) {
+                    entries++;
+                    if (room.getValue() instanceof Map<?, ?> row && row.get("with") instanceof String withEmail
+                            && !safeEmail(withEmail).equals(safeEmail)
+                            && roomId(safeEmail, withEmail).equals(room.getKey())) {
+                        updates.put(CHAT_LIST + "/" + safeEmail(withEmail) + "/" + room.getKey(), null);
+                        entries++;
+                    }
+                }
+            }
+            if (entries > 0) {
+                updates.put(CHAT_LIST + "/" + safeEmail, null);
+                apply(root, updates);
+            }
+            return entries;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> backfillUserRooms() {
+        return database.call(root -> {
+            Map<String, Object> updates = new HashMap<>();
+            if (InMemoryDatabase.get(root, CHAT_LIST) instanceof Map<?, ?> chatList) {
+                chatList.forEach((user, rooms) -> {
+                    if (!(rooms instanceof Map<?, ?> roomMap)) return;
+                    roomMap.forEach((roomId, row) -> {
+                        if (row instanceof Map<?, ?> rowMap && rowMap.get("with") instanceof String withEmail) {
+                            updates.put(USER_ROOMS + "/" + user + "/" + roomId, safeEmail(withEmail));
+                        }
+                    });
+                });
+            }
+            apply(root, updates);
+            return updates.size();
+        });
+    }
+}
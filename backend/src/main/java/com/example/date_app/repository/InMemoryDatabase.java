@@ -0,0 +1,180 @@
+// com/example/date_app/repository/InMemoryDatabase.java
+package com.example.date_app.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * inmemory 프로필용 RTDB 대역. 중첩 Map 트리 하나를 "inmemory-db" 스레드 하나에서만 읽고 쓴다.
+ * 모든 연산은 base-ms + [0, jitter-ms) 만큼 늦게 실행되어 원격 호출 지연을 흉내 낸다.
+ * 지연은 연산마다 따로 흐르고(동시에 기다림) 실행만 직렬이라, 동시 요청 수에 따른 처리량을 Firebase 없이 잴 수 있다.
+ * RTDB 가 한 연결의 쓰기를 보낸 순서대로 반영하듯, 연산은 지연이 달라도 call() 순서대로 실행된다.
+ * 결과 Future 는 DB 스레드에서 완료되므로 Firebase 이벤트 스레드와 마찬가지로 후속 작업에서 막히면 안 된다.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryDatabase {
+
+    @FunctionalInterface
+    public interface Operation<T> {
+        T apply(Map<String, Object> root) throws Exception;
+    }
+
+    private final long baseMillis;
+    private final long jitterMillis;
+    private final ExecutorService dbThread = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "inmemory-db");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Object> root = new LinkedHashMap<>();
+    private final AtomicLong operationCount = new AtomicLong();
+    // call() 순서대로 쌓인 연산. 실행 시각(due)은 앞 연산보다 빠르지 않다
+    private final ArrayDeque<Scheduled> pending = new ArrayDeque<>();
+    private long lastDueNanos;
+
+    private record Scheduled(long dueNanos, Runnable task) {
+    }
+
+    public InMemoryDatabase(@Value("${inmemory.latency.base-ms:0}") long baseMillis,
+                            @Value("${inmemory.latency.jitter-ms:0}") long jitterMillis) {
+        this.baseMillis = baseMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /** 지연 후 DB 스레드에서 op 를 실행한다. op 가 던진 예외로 Future 가 실패한다. */
+    public <T> CompletableFuture<T> call(Operation<T> op) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            operationCount.incrementAndGet();
+            try {
+                future.complete(op.apply(root));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+        long now = System.nanoTime();
+        long delay;
+        synchronized (pending) {
+            long due = Math.max(now + TimeUnit.MILLISECONDS.toNanos(nextLatency()), lastDueNanos);
+            lastDueNanos = due;
+            pending.add(new Scheduled(due, task));
+            delay = due - now;
+        }
+        if (delay > 0) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, dbThread).execute(this::drain);
+        } else {
+            dbThread.execute(this::drain);
+        }
+        return future;
+    }
+
+    /** 실행 시각이 지난 연산을 앞에서부터 실행한다. 연산마다 자기 due 에 drain 이 한 번씩 예약된다. */
+    private void drain() {
+        while (true) {
+            Scheduled next;
+            synchronized (pending) {
+                next = pending.peek();
+                if (next == null || next.dueNanos() - System.nanoTime() > 0) return;
+                pending.poll();
+            }
+            next.task().run();
+        }
+    }
+
+    /** 지연 없이 DB 스레드에서 실행한다. 리스너 통지처럼 "서버 쪽" 작업에 쓴다. */
+    public void execute(Runnable task) {
+        dbThread.execute(task);
+    }
+
+    private long nextLatency() {
+        if (jitterMillis <= 0) return baseMillis;
+        return baseMillis + ThreadLocalRandom.current().nextLong(jitterMillis);
+    }
+
+    public long getOperationCount() {
+        return operationCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dbThread.shutdownNow();
+    }
+
+    // ---- 트리 조작 (DB 스레드에서만 호출) ----
+
+    /** "a/b/c" 위치의 값. 없으면 null */
+    static Object get(Map<String, Object> root, String path) {
+        Object node = root;
+        for (String key : segments(path)) {
+            if (!(node instanceof Map)) return null;
+            node = ((Map<String, Object>) node).get(key);
+        }
+        return node;
+    }
+
+    /** "a/b/c" 위치에 value 를 복사해 넣는다. null 이면 삭제하고, 비게 된 상위 노드도 RTDB 처럼 지운다. */
+    static void set(Map<String, Object> root, String path, Object value) {
+        String[] keys = segments(path);
+        if (value == null) {
+            remove(root, keys, 0);
+            return;
+        }
+        Map<String, Object> node = root;
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object child = node.get(keys[i]);
+            if (!(child instanceof Map)) {
+                child = new LinkedHashMap<String, Object>();
+                node.put(keys[i], child);
+            }
+            node = (Map<String, Object>) child;
+        }
+        node.put(keys[keys.length - 1], copy(value));
+    }
+
+    /** updateChildren 과 같은 다중 경로 갱신. 키는 base 기준 상대 경로 */
+    static void update(Map<String, Object> root, String base, Map<String, Object> updates) {
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            set(root, base.isEmpty() ? entry.getKey() : base + "/" + entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static boolean remove(Map<String, Object> node, String[] keys, int depth) {
+        if (depth == keys.length - 1) {
+            node.remove(keys[depth]);
+        } else if (node.get(keys[depth]) instanceof Map child
+                && remove((Map<String, Object>) child, keys, depth + 1)) {
+            node.remove(keys[depth]);
+        }
+        return node.isEmpty();
+    }
+
+    /** Map/List 를 깊은 복사한다. 트리 밖으로 내보내거나 트리에 넣는 값은 항상 복사본이다. */
+    static Object copy(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copied = new LinkedHashMap<>();
+            map.forEach((k, v) -> { if (v != null) copied.put(String.valueOf(k), copy(v)); });
+            return copied;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copied = new ArrayList<>(list.size());
+            for (Object v : list) copied.add(copy(v));
+            return copied;
+        }
+        return value;
+    }
+
+    private static String[] segments(String path) {
+        return path.split("/");
+    }
+}
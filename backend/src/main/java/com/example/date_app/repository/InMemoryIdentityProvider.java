@@ -0,0 +1,88 @@
+// com/example/date_app/repository/InMemoryIdentityProvider.java
+package com.example.date_app.repository;
+
+import com.example.date_app.model.VerifiedIdentity;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuthException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 메모리 계정 저장소. 비밀번호는 보관하지 않는다.
+ * ID 토큰은 "inmemory:{email}" 형식만 받고, 처음 보는 email 이면 계정을 만든다 (부하 테스트 클라이언트가 바로 로그인할 수 있도록).
+ */
+@Component
+@Profile("inmemory")
+@RequiredArgsConstructor
+public class InMemoryIdentityProvider implements IdentityProvider {
+
+    public static final String TOKEN_PREFIX = "inmemory:";
+
+    private final InMemoryDatabase database;
+    // DB 스레드에서만 접근한다
+    private final Map<String, String> uidByEmail = new HashMap<>();
+    private final Map<String, String> emailByUid = new HashMap<>();
+
+    @Override
+    public CompletableFuture<String> createUser(String email, String password) {
+        return database.call(root -> {
+            if (uidByEmail.containsKey(email)) {
+                throw error(ErrorCode.ALREADY_EXISTS, AuthErrorCode.EMAIL_ALREADY_EXISTS, "이미 가입된 email: " + email);
+            }
+            return register(email);
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> getUidByEmail(String email) {
+        return database.call(root -> {
+            String uid = uidByEmail.get(email);
+            if (uid == null) {
+                throw error(ErrorCode.NOT_FOUND, AuthErrorCode.USER_NOT_FOUND, "사용자 없음: " + email);
+            }
+            return uid;
+        });
+    }
+
+    @Override
+    public CompletableFuture<VerifiedIdentity> verifyIdToken(String idToken) {
+        return database.call(root -> {
+            if (idToken == null || !idToken.startsWith(TOKEN_PREFIX) || idToken.length() == TOKEN_PREFIX.length()) {
+                throw error(ErrorCode.INVALID_ARGUMENT, AuthErrorCode.INVALID_ID_TOKEN, "잘못된 ID 토큰");
+            }
+            String email = idToken.substring(TOKEN_PREFIX.length());
+            String uid = uidByEmail.get(email);
+            return new VerifiedIdentity(uid != null ? uid : register(email), email);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteUser(String uid) {
+        return database.call(root -> {
+            String email = emailByUid.remove(uid);
+            if (email == null) {
+                throw error(ErrorCode.NOT_FOUND, AuthErrorCode.USER_NOT_FOUND, "사용자 없음: " + uid);
+            }
+            uidByEmail.remove(email);
+            return null;
+        });
+    }
+
+    private String register(String email) {
+        String uid = UUID.randomUUID().toString().replace("-", "").substring(0, 28);
+        uidByEmail.put(email, uid);
+        emailByUid.put(uid, email);
+        return uid;
+    }
+
+    private static FirebaseAuthException error(ErrorCode errorCode, AuthErrorCode authErrorCode, String message) {
+        return new FirebaseAuthException(errorCode, message, null, null, authErrorCode);
+    }
+}
@@ -0,0 +1,94 @@
+// com/example/date_app/repository/InMemoryProfileRepository.java
+package com.example.date_app.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+@Profile("inmemory")
+@RequiredArgsConstructor
+public class InMemoryProfileRepository implements ProfileRepository {
+
+    private final InMemoryDatabase database;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public CompletableFuture<Map<String, Object>> find(String uid) {
+        return database.call(root -> (Map<String, Object>) InMemoryDatabase.copy(
+                InMemoryDatabase.get(root, "users/" + uid)));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> findAll() {
+        return database.call(root -> {
+            List<Map<String, Object>> resultList = new ArrayList<>();
+            if (InMemoryDatabase.get(root, "users") instanceof Map<?, ?> users) {
+                for (Object value : users.values()) {
+                    resultList.add((Map<String, Object>) InMemoryDatabase.copy(value));
+                }
+            }
+            return resultList;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> save(String uid, Map<String, Object> profile) {
+        return database.call(root -> {
+            InMemoryDatabase.set(root, "users/" + uid, profile);
+            notifyChanged(root, uid);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String uid, Map<String, Object> updates) {
+        return database.call(root -> {
+            InMemoryDatabase.update(root, "users/" + uid, updates);
+            notifyChanged(root, uid);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String uid) {
+        return database.call(root -> {
+            InMemoryDatabase.set(root, "users/" + uid, null);
+            notifyChanged(root, uid);
+            return null;
+        });
+    }
+
+    @Override
+    public Subscription watch(Listener listener) {
+        // 등록과 기존 프로필 재생을 DB 스레드에서 한 번에 해야 그 사이 변경을 놓치거나 거꾸로 받지 않는다
+        database.call(root -> {
+            listeners.add(listener);
+            if (InMemoryDatabase.get(root, "users") instanceof Map<?, ?> users) {
+                users.forEach((uid, value) -> listener.onUpsert((String) uid,
+                        (Map<String, Object>) InMemoryDatabase.copy(value)));
+            }
+            listener.onInitialLoad();
+            return null;
+        });
+        return () -> listeners.remove(listener);
+    }
+
+    /** DB 스레드에서 호출된다. 리스너도 Firebase 처럼 한 스레드에서 순서대로 받는다. */
+    private void notifyChanged(Map<String, Object> root, String uid) {
+        Object value = InMemoryDatabase.get(root, "users/" + uid);
+        for (Listener listener : listeners) {
+            if (value instanceof Map) {
+                listener.onUpsert(uid, (Map<String, Object>) InMemoryDatabase.copy(value));
+            } else {
+                listener.onRemove(uid);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+// com/example/date_app/repository/InMemorySeeder.java
+package com.example.date_app.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * inmemory 프로필 기동 시 가짜 사용자(user{i}@test.com)를 계정 + 프로필로 채운다.
+ * ProfileIndex 가 구독을 시작하기 전(ApplicationReadyEvent 이전)에 끝나므로 초기 로드로 한 번에 들어간다.
+ */
+@Component
+@Profile("inmemory")
+@RequiredArgsConstructor
+public class InMemorySeeder {
+
+    private static final String[] MBTI = {"INFP", "ENFP", "INTJ", "INTP", "ENTJ", "ENTP", "INFJ", "ENFJ",
+            "ISTJ", "ISFJ", "ESTJ", "ESFJ", "ISTP", "ISFP", "ESTP", "ESFP"};
+
+    private final IdentityProvider identityProvider;
+    private final ProfileRepository profileRepository;
+
+    @Value("${inmemory.seed.users:0}")
+    private int userCount;
+
+    @Value("${inmemory.seed.tags:64}")
+    private int tagCount;
+
+    @Value("${inmemory.seed.random-seed:42}")
+    private long randomSeed;
+
+    @PostConstruct
+    public void seed() {
+        if (userCount <= 0) return;
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            String email = "user" + i + "@test.com";
+            Map<String, Object> profile = profile(email, "user" + i, random.split());
+            writes.add(identityProvider.createUser(email, "password")
+                    .thenCompose(uid -> profileRepository.save(uid, profile)));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        System.out.println("🌱 inmemory 사용자 " + userCount + "명 생성 (" + (System.currentTimeMillis() - start) + "ms)");
+    }
+
+    private Map<String, Object> profile(String email, String name, SplittableRandom random) {
+        Map<String, Object> personality = new HashMap<>();
+        personality.put("mbti", MBTI[random.nextInt(MBTI.length)]);
+        personality.put("tags", tags(random));
+        personality.put("likeTags", tags(random));
+
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("email", email);
+        profile.put("name", name);
+        profile.put("gender", random.nextBoolean() ? "남" : "여");
+        profile.put("birthdate", (1985 + random.nextInt(20)) + "-01-01");
+        profile.put("bio", "");
+        profile.put("profileImage", "/images/default-profile.png");
+        profile.put("personality", personality);
+        return profile;
+    }
+
+    private List<String> tags(SplittableRandom random) {
+        List<String> tags = new ArrayList<>();
+        for (int t = random.nextInt(1, 6); t > 0; t--) tags.add("tag" + random.nextInt(tagCount));
+        return tags;
+    }
+}
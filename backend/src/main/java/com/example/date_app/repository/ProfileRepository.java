@@ -0,0 +1,42 @@
+// com/example/date_app/repository/ProfileRepository.java
+package com.example.date_app.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * users/{uid} 프로필 저장소. 값은 RTDB 문서 형태(중첩 Map)를 그대로 쓴다.
+ * 조회 결과 Map 은 호출마다 새로 만들어지므로 호출 측에서 수정해도 된다.
+ */
+public interface ProfileRepository {
+
+    /** 프로필이 없으면 null 로 완료. 조회가 거부/취소되면 예외로 완료된다 (캐시에 남지 않게) */
+    CompletableFuture<Map<String, Object>> find(String uid);
+
+    CompletableFuture<List<Map<String, Object>>> findAll();
+
+    /** 프로필 전체를 덮어쓴다. */
+    CompletableFuture<Void> save(String uid, Map<String, Object> profile);
+
+    /** "personality/mbti" 같은 상대 경로 → 값 의 부분 갱신. 값이 null 이면 삭제 */
+    CompletableFuture<Void> update(String uid, Map<String, Object> updates);
+
+    CompletableFuture<Void> delete(String uid);
+
+    /**
+     * 프로필 추가/변경/삭제를 구독한다. 기존 프로필 전체가 먼저 onUpsert 로 전달된 뒤 onInitialLoad 가 한 번 호출된다.
+     */
+    Subscription watch(Listener listener);
+
+    interface Listener {
+
+        void onUpsert(String uid, Map<String, Object> profile);
+
+        void onRemove(String uid);
+
+        void onInitialLoad();
+
+        void onError(String message);
+    }
+}
@@ -0,0 +1,9 @@
+// com/example/date_app/repository/Subscription.java
+package com.example.date_app.repository;
+
+/** 저장소 변경 구독 해제 핸들 */
+@FunctionalInterface
+public interface Subscription {
+
+    void cancel();
+}
@@ -0,0 +1,22 @@
+// com/example/date_app/security/AuthenticatedUser.java
+package com.example.date_app.security;
+
+import java.security.Principal;
+
+/**
+ * JWT 로 인증된 사용자. SecurityContext 의 principal 로 들어간다.
+ * getName() 이 email 을 돌려주므로 Authentication.getName() 으로 그대로 email 을 얻을 수 있다.
+ * UID 는 토큰에 싣지 않는다. 필요한 곳은 UidResolver 로 email 에서 찾는다.
+ */
+public record AuthenticatedUser(String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
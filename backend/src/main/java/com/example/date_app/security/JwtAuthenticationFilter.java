@@ -7,15 +7,18 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
     private final JwtUtil jwtUtil;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil) {
@@ -37,23 +40,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                String email = jwtUtil.validateAndGetEmail(token);
-                System.out.println("✅ JWT 인증 성공 - 사용자 이메일: " + email);
+                AuthenticatedUser user = jwtUtil.authenticate(token);
 
                 UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(
-                                email,
-                                null,
-                                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-                        );
+                        new UsernamePasswordAuthenticationToken(user, null, USER_AUTHORITIES);
                 SecurityContextHolder.getContext().setAuthentication(auth);
             } catch (Exception e) {
-                System.out.println("❌ JWT 인증 실패: " + e.getMessage());
-                // 인증 실패하더라도 필터는 계속 진행
+                // 인증 실패하더라도 필터는 계속 진행 (보호된 경로는 entryPoint 에서 401)
             }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * CompletableFuture 를 돌려주는 컨트롤러는 ASYNC 디스패치로 다시 보안 필터 체인을 지난다.
+     * 세션을 쓰지 않으므로(STATELESS) 이때도 토큰으로 다시 인증해야 401 이 나지 않는다. 같은 토큰은 JwtUtil 캐시에서 끝난다.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
 }
@@ -0,0 +1,167 @@
+// com/example/date_app/service/CandidateIndex.java
+package com.example.date_app.service;
+
+import com.example.date_app.model.Candidate;
+import com.example.date_app.model.RequesterContext;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 후보 목록 위의 역색인.
+ * 후보의 목록 내 위치를 서수로 쓰고, 성별/MBTI/태그별 posting list 를 RoaringBitmap 으로 가진다.
+ * 점수 계산 전에 비트맵 연산만으로 제외 대상(본인, 같은 성별, 미완성 프로필)을 걸러내고,
+ * likeTags 와 많이 겹치는 후보부터 꺼낼 수 있게 한다. 만든 뒤에는 바뀌지 않는다.
+ */
+public final class CandidateIndex {
+
+    // 겹침 단계는 이 수까지만 나눈다. 그 이상은 한 묶음으로 전부 점수를 계산한다.
+    private static final int MAX_OVERLAP_LEVELS = 16;
+
+    private final List<Candidate> candidates;
+    private final Map<String, Integer> ordinalByEmail;
+    private final RoaringBitmap eligible;
+    private final Map<String, RoaringBitmap> byGender;
+    private final RoaringBitmap[] byMbti;
+    private final RoaringBitmap[] byTag;
+
+    private CandidateIndex(List<Candidate> candidates, Map<String, Integer> ordinalByEmail, RoaringBitmap eligible,
+                           Map<String, RoaringBitmap> byGender, RoaringBitmap[] byMbti, RoaringBitmap[] byTag) {
+        this.candidates = candidates;
+        this.ordinalByEmail = ordinalByEmail;
+        this.eligible = eligible;
+        this.byGender = byGender;
+        this.byMbti = byMbti;
+        this.byTag = byTag;
+    }
+
+    /** 추천 대상이 될 수 있는(eligible) 후보만 posting list 에 넣는다. */
+    public static CandidateIndex build(List<Candidate> candidates) {
+        List<Candidate> ordered = List.copyOf(candidates);
+        Map<String, Integer> ordinalByEmail = new HashMap<>();
+        RoaringBitmap eligible = new RoaringBitmap();
+        Map<String, RoaringBitmap> byGender = new HashMap<>(); // 성별 null 도 하나의 키로 취급
+        RoaringBitmap[] byMbti = new RoaringBitmap[16];
+        List<RoaringBitmap> byTag = new ArrayList<>();
+
+        for (int ordinal = 0; ordinal < ordered.size(); ordinal++) {
+            Candidate candidate = ordered.get(ordinal);
+            if (!candidate.eligible()) continue;
+
+            ordinalByEmail.put(candidate.email(), ordinal);
+            eligible.add(ordinal);
+            byGender.computeIfAbsent(candidate.gender(), g -> new RoaringBitmap()).add(ordinal);
+            if (candidate.mbti() >= 0) {
+                if (byMbti[candidate.mbti()] == null) byMbti[candidate.mbti()] = new RoaringBitmap();
+                byMbti[candidate.mbti()].add(ordinal);
+            }
+            for (int tagId : tagIds(candidate.tagBits())) {
+                while (byTag.size() <= tagId) byTag.add(null);
+                if (byTag.get(tagId) == null) byTag.set(tagId, new RoaringBitmap());
+                byTag.get(tagId).add(ordinal);
+            }
+        }
+
+        eligible.runOptimize();
+        byGender.values().forEach(RoaringBitmap::runOptimize);
+        for (RoaringBitmap bitmap : byMbti) if (bitmap != null) bitmap.runOptimize();
+        for (RoaringBitmap bitmap : byTag) if (bitmap != null) bitmap.runOptimize();
+
+        return new CandidateIndex(ordered, Collections.unmodifiableMap(ordinalByEmail), eligible,
+                Collections.unmodifiableMap(byGender), byMbti, byTag.toArray(new RoaringBitmap[0]));
+    }
+
+    public static CandidateIndex empty() {
+        return build(List.of());
+    }
+
+    public List<Candidate> candidates() {
+        return candidates;
+    }
+
+    public Candidate candidate(int ordinal) {
+        return candidates.get(ordinal);
+    }
+
+    public int size() {
+        return candidates.size();
+    }
+
+    /**
+     * me 에게 추천될 수 있는 후보 서수 집합: eligible − 같은 성별 − 본인.
+     * calculateScore 가 EXCLUDED 를 돌려줄 후보를 점수 계산 전에 미리 뺀다.
+     */
+    public RoaringBitmap eligibleFor(RequesterContext me) {
+        RoaringBitmap pool = eligible.clone();
+        RoaringBitmap sameGender = byGender.get(me.gender());
+        if (sameGender != null) pool.andNot(sameGender);
+        Integer self = ordinalByEmail.get(me.email());
+        if (self != null) pool.remove(self);
+        return pool;
+    }
+
+    public RoaringBitmap withMbti(int mbti) {
+        RoaringBitmap bitmap = (mbti >= 0 && mbti < byMbti.length) ? byMbti[mbti] : null;
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    public RoaringBitmap withTag(int tagId) {
+        RoaringBitmap bitmap = (tagId >= 0 && tagId < byTag.length) ? byTag[tagId] : null;
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    /**
+     * pool 을 likeTags 겹침 개수로 나눈 누적 단계.
+     * levels.get(t) = pool 중 likeTags 가 t 개 이상 겹치는 후보 (levels.get(0) == pool).
+     * 마지막 단계는 "그 이상 모두" 이므로, 단계 t 에 정확히 속하는 후보는 levels(t) − levels(t+1) 이다.
+     * 태그 posting list 만 합치므로 likeTags 와 하나도 겹치지 않는 후보는 건드리지 않는다.
+     */
+    public List<RoaringBitmap> overlapLevels(RoaringBitmap pool, long[] likeTagBits) {
+        List<RoaringBitmap> tagLists = new ArrayList<>();
+        for (int tagId : tagIds(likeTagBits)) {
+            if (tagId < byTag.length && byTag[tagId] != null) tagLists.add(byTag[tagId]);
+        }
+
+        int top = Math.min(tagLists.size(), MAX_OVERLAP_LEVELS);
+        RoaringBitmap[] levels = new RoaringBitmap[top + 1];
+        levels[0] = pool;
+        for (int t = 1; t <= top; t++) levels[t] = new RoaringBitmap();
+
+        for (int i = 0; i < tagLists.size(); i++) {
+            RoaringBitmap tag = tagLists.get(i);
+            // 높은 단계부터 갱신해야 이번 태그가 한 번만 세어진다
+            for (int t = Math.min(i + 1, top); t >= 1; t--) {
+                levels[t].or(RoaringBitmap.and(levels[t - 1], tag));
+            }
+        }
+        return List.of(levels);
+    }
+
+    /** posting list 가 차지하는 대략적인 메모리(byte) */
+    public long sizeInBytes() {
+        long bytes = eligible.getLongSizeInBytes();
+        for (RoaringBitmap bitmap : byGender.values()) bytes += bitmap.getLongSizeInBytes();
+        for (RoaringBitmap bitmap : byMbti) if (bitmap != null) bytes += bitmap.getLongSizeInBytes();
+        for (RoaringBitmap bitmap : byTag) if (bitmap != null) bytes += bitmap.getLongSizeInBytes();
+        return bytes;
+    }
+
+    private static int[] tagIds(long[] bits) {
+        int count = 0;
+        for (long word : bits) count += Long.bitCount(word);
+        int[] ids = new int[count];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                ids[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,163 @@
+// com/example/date_app/service/ChatHistoryService.java
+package com.example.date_app.service;
+
+import com.example.date_app.repository.ChatRepository;
+import com.example.date_app.util.ChatKeys;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 채팅 기록을 키(push ID = 시간순) 기준 커서로 나눠 읽는다.
+ * 방을 열 때 처음 메시지부터 구독하던 것을 최근 limit 개만 읽고, 이전 기록은 before 커서로 더 읽게 한다.
+ * 방마다 최근 window 개를 LRU 캐시에 두어 방 입장(before 없음)은 대부분 RTDB 조회 없이 끝난다.
+ * 캐시는 이 서버가 보낸 메시지({@link #onSent})로 갱신되고, 계정 삭제 시 그 사용자의 방을 버린다.
+ * 다른 경로(다른 인스턴스, 예전 클라이언트의 직접 쓰기)로 들어온 메시지는 보이지 않으므로, 창은 읽은 지 ttl 이 지나면
+ * 계속 조회되더라도 다시 읽는다 (expireAfterWrite).
+ */
+@Service
+public class ChatHistoryService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private final ChatRepository chatRepository;
+    private final ChatRoomAccess chatRoomAccess;
+    private final int windowSize;
+    // roomId → 최근 메시지 창
+    private final AsyncCache<String, Window> recentWindows;
+
+    // 잠금은 창 객체 자체
+    private static final class Window {
+        // 두 참여자의 safeEmail. roomId 는 나눌 수 없어서 계정 삭제 시 이것으로 찾는다
+        final Set<String> members;
+        final TreeMap<String, Map<String, Object>> messages = new TreeMap<>();
+        boolean reachedStart; // 방의 첫 메시지까지 들어 있음
+
+        Window(Set<String> members) {
+            this.members = members;
+        }
+    }
+
+    public ChatHistoryService(ChatRepository chatRepository,
+                              ChatRoomAccess chatRoomAccess,
+                              @Value("${chat.history.window:50}") int windowSize,
+                              @Value("${chat.history.cache-rooms:1000}") long maxRooms,
+                              @Value("${chat.history.cache-ttl:1m}") Duration ttl) {
+        this.chatRepository = chatRepository;
+        this.chatRoomAccess = chatRoomAccess;
+        this.windowSize = windowSize;
+        this.recentWindows = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * email 과 partnerEmail 의 방 roomId 에서 before 보다 앞선 메시지 최대 limit 개 (오래된 것 → 최근 순).
+     * 결과는 {messages, hasMore, nextBefore}. 다음 페이지는 nextBefore 를 before 로 넘긴다.
+     * 두 사람의 방이 아니면 IllegalArgumentException.
+     */
+    public CompletableFuture<Map<String, Object>> page(String email, String roomId, String partnerEmail,
+                                                       String before, int limit) {
+        CompletableFuture<Void> access = chatRoomAccess.requireMember(email, roomId, partnerEmail);
+        if (before != null && !ChatKeys.isPushId(before)) {
+            throw new IllegalArgumentException("잘못된 메시지 ID 입니다.");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        Set<String> members = Set.of(ChatKeys.safeEmail(email), ChatKeys.safeEmail(partnerEmail));
+        return access.thenCompose(v -> recentWindows.get(roomId, (key, executor) -> load(key, members)))
+                .thenCompose(window -> {
+                    synchronized (window) {
+                        NavigableMap<String, Map<String, Object>> head =
+                                before != null ? window.messages.headMap(before, false) : window.messages;
+                        // 창 안에서 채울 수 있으면(또는 창이 방 전체면) 조회하지 않는다
+                        if (head.size() >= size || window.reachedStart) {
+                            List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(head.entrySet());
+                            List<Map.Entry<String, Map<String, Object>>> page =
+                                    entries.subList(Math.max(0, entries.size() - size), entries.size());
+                            boolean hasMore = entries.size() > size || !window.reachedStart;
+                            return CompletableFuture.completedFuture(result(page, hasMore));
+                        }
+                    }
+                    // 창보다 오래된 기록: 하나 더 읽어 다음 페이지가 있는지 안다
+                    return chatRepository.messagesBefore(roomId, before, size + 1).thenApply(messages -> {
+                        List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(messages.entrySet());
+                        boolean hasMore = entries.size() > size;
+                        return result(entries.subList(hasMore ? 1 : 0, entries.size()), hasMore);
+                    });
+                });
+    }
+
+    /** 이 서버가 기록을 마친 메시지를 캐시된 창에 넣는다. 창이 아직 없으면 다음 조회 때 읽는다. */
+    public void onSent(String roomId, String messageId, Map<String, Object> message) {
+        CompletableFuture<Window> cached = recentWindows.getIfPresent(roomId);
+        if (cached == null) return;
+        // 불러오는 중이면 끝난 뒤에 넣는다. 불러온 결과에 이미 있으면 같은 키로 덮어쓸 뿐이다
+        cached.thenAccept(window -> {
+            synchronized (window) {
+                window.messages.put(messageId, message);
+                while (window.messages.size() > windowSize) {
+                    window.messages.pollFirstEntry();
+                    window.reachedStart = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * email 사용자가 참여한 방의 창과 참여자 기록 캐시를 버린다 (채팅방 삭제 후).
+     * 아직 불러오는 중인 창은 삭제 전 내용일 수 있어 함께 버린다.
+     */
+    public void invalidateRoomsOf(String email) {
+        chatRoomAccess.invalidateRoomsOf(email);
+        String safeEmail = ChatKeys.safeEmail(email);
+        recentWindows.asMap().values().removeIf(future -> !future.isDone() || future.isCompletedExceptionally()
+                || future.join().members.contains(safeEmail));
+    }
+
+    private CompletableFuture<Window> load(String roomId, Set<String> members) {
+        return chatRepository.messagesBefore(roomId, null, windowSize).thenApply(messages -> {
+            Window window = new Window(members);
+            window.messages.putAll(messages);
+            window.reachedStart = messages.size() < windowSize;
+            return window;
+        });
+    }
+
+    private static Map<String, Object> result(List<Map.Entry<String, Map<String, Object>>> page, boolean hasMore) {
+        List<Map<String, Object>> messages = new ArrayList<>(page.size());
+        for (Map.Entry<String, Map<String, Object>> entry : page) {
+            Map<String, Object> message = new LinkedHashMap<>(entry.getValue());
+            message.put("id", entry.getKey());
+            messages.add(message);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("messages", messages);
+        result.put("hasMore", hasMore);
+        result.put("nextBefore", messages.isEmpty() ? null : messages.get(0).get("id"));
+        return result;
+    }
+
+    public long size() {
+        return recentWindows.synchronous().estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return recentWindows.synchronous().stats();
+    }
+}
@@ -0,0 +1,115 @@
+// com/example/date_app/service/ChatRoomAccess.java
+package com.example.date_app.service;
+
+import com.example.date_app.repository.ChatRepository;
+import com.example.date_app.util.ChatKeys;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuthException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 채팅방 접근 확인.
+ * roomId 는 두 safeEmail 을 '_' 로 이은 값이라 다시 둘로 나눌 수 없다. 서로 다른 두 쌍(예: bob@y.com + carol@z.com 과
+ * com_carol@z.com + bob@y_dot)이 같은 방 ID 를 만들 수 있으므로, 방 ID 를 다시 만들어 맞춰 보는 것만으로는 부족하다.
+ * 그래서 서버가 방에 처음 접근할 때 chats/{roomId}/members 에 두 참여자의 email 을 한 번만 기록하고(트랜잭션),
+ * 이후에는 요청한 사용자와 대화 상대가 그 기록과 정확히 같은지 본다.
+ * members 가 생기기 전의 방은 남아 있는 메시지의 sender/receiver 가 두 사람 밖에 없을 때만 기록한다.
+ */
+@Component
+public class ChatRoomAccess {
+
+    private final UidResolver uidResolver;
+    private final ChatRepository chatRepository;
+    // roomId → members. 한 번 기록되면 바뀌지 않으므로 있는 값만 캐시한다 (방 삭제 시 invalidateRoomsOf)
+    private final AsyncCache<String, Map<String, Object>> roomMembers;
+
+    public ChatRoomAccess(UidResolver uidResolver,
+                          ChatRepository chatRepository,
+                          @Value("${chat.members-cache.max-rooms:10000}") long maxRooms,
+                          @Value("${chat.members-cache.ttl:1h}") Duration ttl) {
+        this.uidResolver = uidResolver;
+        this.chatRepository = chatRepository;
+        this.roomMembers = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .buildAsync();
+    }
+
+    /**
+     * email 사용자와 partnerEmail 의 방이 roomId 인지 확인한다.
+     * 형식이 틀리면 바로 IllegalArgumentException, 상대가 가입된 계정이 아니거나 방의 참여자가 다르면
+     * IllegalArgumentException 으로 완료된다. 아직 참여자 기록이 없는 방이면 이 두 사람으로 기록한다.
+     */
+    public CompletableFuture<Void> requireMember(String email, String roomId, String partnerEmail) {
+        if (partnerEmail == null || partnerEmail.isBlank()
+                || ChatKeys.safeEmail(partnerEmail).equals(ChatKeys.safeEmail(email))) {
+            throw new IllegalArgumentException("대화 상대가 올바르지 않습니다.");
+        }
+        if (roomId == null || !ChatKeys.roomId(email, partnerEmail).equals(roomId)) {
+            throw new IllegalArgumentException("참여하지 않은 채팅방입니다.");
+        }
+        return uidResolver.resolveAsync(partnerEmail).handle((uid, e) -> {
+            if (e == null) return null;
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof FirebaseAuthException authException
+                    && authException.getAuthErrorCode() == AuthErrorCode.USER_NOT_FOUND) {
+                throw new IllegalArgumentException("참여하지 않은 채팅방입니다.");
+            }
+            throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+        }).thenCompose(v -> roomMembers.get(roomId, (key, executor) -> loadOrClaim(key, email, partnerEmail)))
+                .thenAccept(members -> {
+                    if (!isPair(members, email, partnerEmail)) {
+                        throw new IllegalArgumentException("참여하지 않은 채팅방입니다.");
+                    }
+                });
+    }
+
+    /** email 사용자가 참여한 방의 캐시된 참여자 기록을 버린다 (채팅방 삭제 후). */
+    public void invalidateRoomsOf(String email) {
+        roomMembers.asMap().values().removeIf(future -> !future.isDone() || future.isCompletedExceptionally()
+                || future.join() == null || future.join().containsValue(email));
+    }
+
+    /**
+     * 저장된 members 를 읽고, 없으면 email/partnerEmail 로 기록한다.
+     * 예전 메시지에 다른 사람이 있으면 기록하지 않고 null (다음 요청이 다시 확인한다).
+     */
+    private CompletableFuture<Map<String, Object>> loadOrClaim(String roomId, String email, String partnerEmail) {
+        return chatRepository.members(roomId).thenCompose(existing -> {
+            if (existing != null) return CompletableFuture.completedFuture(existing);
+            return chatRepository.messages(roomId, null, null).thenCompose(messages -> {
+                Set<Object> participants = new HashSet<>();
+                messages.values().forEach(message -> {
+                    if (message.get("sender") != null) participants.add(message.get("sender"));
+                    if (message.get("receiver") != null) participants.add(message.get("receiver"));
+                });
+                participants.remove(email);
+                participants.remove(partnerEmail);
+                if (!participants.isEmpty()) {
+                    System.out.println("⚠️ 참여자 기록 없는 방에 다른 사용자의 메시지가 있어 기록하지 않음: " + roomId);
+                    return CompletableFuture.completedFuture(null);
+                }
+                return chatRepository.claimMembers(roomId, Map.of(
+                        ChatKeys.safeEmail(email), email,
+                        ChatKeys.safeEmail(partnerEmail), partnerEmail));
+            });
+        });
+    }
+
+    private static boolean isPair(Map<String, Object> members, String email, String partnerEmail) {
+        return members != null && members.size() == 2
+                && email.equals(members.get(ChatKeys.safeEmail(email)))
+                && partnerEmail.equals(members.get(ChatKeys.safeEmail(partnerEmail)));
+    }
+}
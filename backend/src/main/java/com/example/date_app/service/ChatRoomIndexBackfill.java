@@ -0,0 +1,40 @@
+// com/example/date_app/service/ChatRoomIndexBackfill.java
+package com.example.date_app.service;
+
+import com.example.date_app.repository.ChatRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * user_rooms 역색인 도입 전에 만들어진 채팅방을 기동 시 한 번 색인한다.
+ * chat.user-rooms.backfill=true 일 때만 실행되며, 이후 새 채팅방은 방을 만드는 쪽이 역색인을 함께 쓴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatRoomIndexBackfill {
+
+    private final ChatRepository chatRepository;
+
+    @Value("${chat.user-rooms.backfill:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) return;
+        long start = System.currentTimeMillis();
+        try {
+            chatRepository.backfillUserRooms()
+                    .thenAccept(count -> System.out.println("✅ user_rooms 역색인 " + count + "건 채움 ("
+                            + (System.currentTimeMillis() - start) + "ms)"))
+                    .exceptionally(e -> {
+                        System.out.println("❌ user_rooms 역색인 채우기 실패: " + e.getMessage());
+                        return null;
+                    });
+        } catch (IllegalStateException e) {
+            System.out.println("⚠️ Firebase 미초기화 - user_rooms 역색인 건너뜀: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,422 @@
+// com/example/date_app/service/ChatService.java
+package com.example.date_app.service;
+
+import com.example.date_app.repository.ChatRepository;
+import com.example.date_app.util.ChatKeys;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.date_app.util.ChatKeys.CHATS;
+import static com.example.date_app.util.ChatKeys.CHAT_LIST;
+import static com.example.date_app.util.ChatKeys.READ_STATE;
+import static com.example.date_app.util.ChatKeys.USER_ROOMS;
+
+/**
+ * 서버 쪽 메시지 전송과 읽음 처리.
+ * 클라이언트가 push + user_rooms + 양쪽 chat_list 를 따로 쓰던 것을, 서버에서 만든 push ID 로
+ * 메시지 / 양쪽 chat_list 행 / 안 읽은 수 증가 / user_rooms 를 한 번의 다중 경로 갱신으로 반영한다.
+ * Admin SDK 9.2.0 에는 ServerValue.increment 가 없으므로 unreadCount 는 이 서버가 유일한 writer 가 되어
+ * (수신자, 방)별 카운터를 메모리에 두고 그 값을 그대로 쓴다. 카운터는 처음 쓸 때 한 번만 RTDB 에서 읽는다.
+ * unreadCount 는 메시지와 함께 쓰지 않고 flush-window 동안 모아, 바뀐 카운터들의 현재 값을 한 번의 다중 경로
+ * 갱신으로 쓴다. 같은 방에 메시지가 몰려도 unreadCount 쓰기는 창마다 한 번이다. 이 쓰기는 flush 스레드 하나만
+ * 내보내므로 RTDB 에 늦게 도착한 작은 값이 큰 값을 덮는 일이 없다.
+ *
+ * 읽음은 메시지마다 read 플래그를 쓰지 않고 사용자별 읽음 위치(readState 의 lastReadMessageId)만 기록한다.
+ * push ID 는 시간순으로 정렬되므로 안 읽은 수 = watermark 이후 상대가 보낸 메시지 수다.
+ * 예전 read 플래그는 사용자가 그 방을 처음 읽음 처리할 때 watermark 로 옮기고 지운다.
+ */
+@Service
+public class ChatService {
+
+    public static final int MAX_TEXT_LENGTH = 1000;
+
+    private final ChatRepository chatRepository;
+    private final ChatRoomAccess chatRoomAccess;
+    private final ChatHistoryService chatHistoryService;
+    // "수신자 safeEmail/roomId" → 안 읽은 수와 읽음 위치
+    private final AsyncCache<String, UnreadCounter> unreadCounters;
+    private final long flushWindowMillis;
+    private final ScheduledExecutorService flusher;
+
+    // 다음 flush 에 쓸 것. flushLock 으로 잠근다 (잠금 순서: counter → flushLock)
+    private final Object flushLock = new Object();
+    private final Map<String, UnreadCounter> dirtyCounters = new HashMap<>();
+    private final Map<String, Object> pendingUpdates = new HashMap<>();
+    // 다음 flush 가 기록되면 완료된다 / 마지막으로 내보낸 flush
+    private CompletableFuture<Void> nextBatch = new CompletableFuture<>();
+    private CompletableFuture<Void> lastBatch = CompletableFuture.completedFuture(null);
+    private boolean flushScheduled;
+
+    private final AtomicLong bufferedIncrements = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedCounters = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    // 잠금은 카운터 객체 자체
+    private static final class UnreadCounter {
+        // chat_list/{safeEmail}/{roomId}/unreadCount
+        final String path;
+        long unread;
+        // 이 서버가 이 수신자에게 보낸 메시지 수 / 그중 마지막 키 (읽음 처리 중에 도착한 메시지를 세기 위함)
+        long sentSeq;
+        String lastSentId;
+        // 읽음 위치. watermarkLoaded 가 false 면 아직 readState 를 읽지 않았다
+        String watermark;
+        boolean watermarkLoaded;
+
+        UnreadCounter(String path, long unread) {
+            this.path = path;
+            this.unread = unread;
+        }
+    }
+
+    // readState 가 없던 방에서 read 플래그로부터 옮겨 올 값
+    private static final class LegacyFlags {
+        String watermark;
+        final List<String> paths = new ArrayList<>();
+    }
+
+    public ChatService(ChatRepository chatRepository,
+                       ChatRoomAccess chatRoomAccess,
+                       ChatHistoryService chatHistoryService,
+                       @Value("${chat.unread-cache.ttl:30m}") Duration ttl,
+                       @Value("${chat.unread-cache.flush-window:50ms}") Duration flushWindow) {
+        this.chatRepository = chatRepository;
+        this.chatRoomAccess = chatRoomAccess;
+        this.chatHistoryService = chatHistoryService;
+        this.unreadCounters = Caffeine.newBuilder()
+                .expireAfterAccess(ttl)
+                .executor(Runnable::run) // 정리 작업 때문에 공용 풀 스레드를 띄우지 않는다
+                .buildAsync();
+        this.flushWindowMillis = flushWindow.toMillis();
+        // unreadCount 쓰기를 내보내는 유일한 스레드
+        this.flusher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "chat-unread-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * senderEmail → receiverEmail 메시지를 roomId 방에 보낸다. 결과는 {id, timestamp}.
+     * roomId 가 두 사람의 방이 아니거나(받는 사람이 가입된 계정이 아닌 경우 포함) text 가 비었으면 IllegalArgumentException.
+     */
+    public CompletableFuture<Map<String, Object>> send(String senderEmail, String roomId, String receiverEmail, String text) {
+        CompletableFuture<Void> access = chatRoomAccess.requireMember(senderEmail, roomId, receiverEmail);
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("메시지가 비어 있습니다.");
+        }
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("메시지는 최대 " + MAX_TEXT_LENGTH + "자까지 보낼 수 있습니다.");
+        }
+
+        String senderKey = ChatKeys.safeEmail(senderEmail);
+        String receiverKey = ChatKeys.safeEmail(receiverEmail);
+
+        String counterKey = receiverKey + "/" + roomId;
+        return access.thenCompose(v -> counter(counterKey, receiverKey, roomId)).thenCompose(counter -> {
+            CompletableFuture<Void> write;
+            String messageId;
+            long timestamp;
+            Map<String, Object> message = new HashMap<>();
+            // 키를 만들고 쓰기를 요청하는 것까지 잠금 안에서 해야 lastSentId 보다 작은 키가 나중에 기록되지 않는다
+            synchronized (counter) {
+                messageId = ChatKeys.pushId();
+                timestamp = System.currentTimeMillis();
+                counter.unread++;
+                counter.sentSeq++;
+                counter.lastSentId = messageId;
+
+                message.put("sender", senderEmail);
+                message.put("receiver", receiverEmail);
+                message.put("text", text);
+                message.put("timestamp", timestamp);
+
+                Map<String, Object> updates = new HashMap<>();
+                updates.put(CHATS + "/" + roomId + "/messages/" + messageId, message);
+                // 행 전체를 덮지 않고 필드 단위로 쓴다. 보낸 사람의 unreadCount 는 그 사람 카운터 몫이라 건드리지 않는다
+                putRow(updates, senderKey, roomId, receiverEmail, text, timestamp);
+                putRow(updates, receiverKey, roomId, senderEmail, text, timestamp);
+                updates.put(USER_ROOMS + "/" + senderKey + "/" + roomId, receiverKey);
+                updates.put(USER_ROOMS + "/" + receiverKey + "/" + roomId, senderKey);
+                write = chatRepository.commit(updates);
+                // unreadCount 는 다음 flush 때 모아서 쓴다
+                bufferedIncrements.incrementAndGet();
+                enqueue(counter, Map.of());
+            }
+            return write.handle((v, e) -> {
+                if (e != null) {
+                    // 메시지가 기록되지 않았으므로 증가를 되돌린다. 이미 읽음 처리로 0 이 됐으면 그대로 둔다
+                    synchronized (counter) {
+                        if (counter.unread > 0) counter.unread--;
+                        enqueue(counter, Map.of());
+                    }
+                    throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+                }
+                chatHistoryService.onSent(roomId, messageId, message);
+                return Map.<String, Object>of("id", messageId, "timestamp", timestamp);
+            });
+        });
+    }
+
+    /**
+     * email 사용자가 partnerEmail 과의 방 roomId 를 lastReadMessageId 까지 읽었다고 기록한다 (null 이면 방의 마지막 메시지까지).
+     * 방의 마지막 메시지보다 뒤의 ID 는 마지막 메시지로 줄인다. 아직 없는 ID 가 watermark 가 되면 이후 메시지가 모두 읽은 것이 된다.
+     * readState 와 거기서 계산한 unreadCount 를 한 번의 다중 경로 갱신으로 쓴다. watermark 는 뒤로 가지 않는다.
+     * 결과는 {lastReadMessageId, unreadCount}. 두 사람의 방이 아니면 IllegalArgumentException.
+     */
+    public CompletableFuture<Map<String, Object>> markRead(String email, String roomId, String partnerEmail,
+                                                           String lastReadMessageId) {
+        CompletableFuture<Void> access = chatRoomAccess.requireMember(email, roomId, partnerEmail);
+        if (lastReadMessageId != null && !ChatKeys.isPushId(lastReadMessageId)) {
+            throw new IllegalArgumentException("잘못된 메시지 ID 입니다.");
+        }
+        String userKey = ChatKeys.safeEmail(email);
+        String counterKey = userKey + "/" + roomId;
+
+        // 방을 확인한 뒤에만 읽는다
+        CompletableFuture<String> requested = access.thenCompose(v -> chatRepository.lastMessageKey(roomId))
+                .thenApply(last -> lastReadMessageId != null && last != null ? min(lastReadMessageId, last) : last);
+
+        // 실패해도 카운터는 버리지 않는다. 기록 전 조회 실패는 카운터를 바꾸지 않았고, flush 실패는 다시 시도한다
+        return access.thenCompose(v -> counter(counterKey, userKey, roomId))
+                .thenCompose(counter -> loadWatermark(counter, roomId, userKey)
+                        .thenCompose(legacy -> requested.thenCompose(target ->
+                                advance(counter, email, userKey, roomId, target, legacy))));
+    }
+
+    /**
+     * 카운터에 readState 를 채운다. readState 가 없는(watermark 도입 전) 방이면 메시지를 한 번 읽어
+     * 상대 메시지 중 read=true 인 마지막 키를 옛 watermark 로 삼고, 지울 read 플래그 경로와 함께 돌려준다.
+     * 옮길 것이 없으면 null.
+     */
+    private CompletableFuture<LegacyFlags> loadWatermark(UnreadCounter counter, String roomId, String userKey) {
+        synchronized (counter) {
+            if (counter.watermarkLoaded) return CompletableFuture.completedFuture(null);
+        }
+        return chatRepository.readState(roomId, userKey).thenCompose(state -> {
+            if (state != null) {
+                synchronized (counter) {
+                    if (!counter.watermarkLoaded) {
+                        counter.watermark = state.get("lastReadMessageId") instanceof String id ? id : null;
+                        counter.watermarkLoaded = true;
+                    }
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+            return chatRepository.messages(roomId, null, null).thenApply(messages -> {
+                LegacyFlags legacy = new LegacyFlags();
+                messages.forEach((key, message) -> {
+                    if (userKey.equals(ChatKeys.safeEmail(String.valueOf(message.get("sender"))))) return;
+                    if (Boolean.TRUE.equals(message.get("read"))) legacy.watermark = key;
+                    if (message.containsKey("read")) legacy.paths.add(CHATS + "/" + roomId + "/messages/" + key + "/read");
+                });
+                return legacy;
+            });
+        });
+    }
+
+    private CompletableFuture<Map<String, Object>> advance(UnreadCounter counter, String email, String userKey,
+                                                           String roomId, String requested, LegacyFlags legacy) {
+        String target;
+        long seqAtQuery;
+        String lastSentAtQuery;
+        synchronized (counter) {
+            target = max(max(counter.watermark, legacy != null ? legacy.watermark : null), requested);
+            boolean moved = target != null && !target.equals(counter.watermark);
+            if (!moved && legacy == null) {
+                return CompletableFuture.completedFuture(result(counter.watermark, counter.unread));
+            }
+            // 이 서버가 보낸 마지막 메시지까지 읽었으면 조회 없이 0
+            if (counter.lastSentId != null && target != null && target.compareTo(counter.lastSentId) >= 0) {
+                return write(counter, userKey, roomId, target, 0, legacy);
+            }
+            seqAtQuery = counter.sentSeq;
+            // 아직 보낸 메시지가 없어도 범위를 막는다. 키는 이 잠금 안에서 만들어지므로 이후 보내는 메시지는 모두 이 키보다 크다.
+            // 막지 않으면 조회 도중 보낸 메시지가 조회 결과와 sentSeq 차이에 두 번 잡힌다
+            lastSentAtQuery = counter.lastSentId != null ? counter.lastSentId : ChatKeys.pushId();
+        }
+
+        // watermark 이후 상대가 보낸 메시지 수. 조회 범위를 lastSentAtQuery 까지로 막고,
+        // 그 뒤에 이 서버가 보낸 메시지는 sentSeq 차이로 더해 같은 메시지를 두 번 세지 않는다
+        return chatRepository.messages(roomId, target, lastSentAtQuery).thenCompose(after -> {
+            long fromMe = after.values().stream()
+                    .filter(message -> email.equals(message.get("sender")))
+                    .count();
+            synchronized (counter) {
+                long unread = after.size() - fromMe + (counter.sentSeq - seqAtQuery);
+                return write(counter, userKey, roomId, target, unread, legacy);
+            }
+        });
+    }
+
+    // counter 잠금 안에서 호출한다. readState 와 unreadCount 는 같은 flush 에 함께 쓰인다
+    private CompletableFuture<Map<String, Object>> write(UnreadCounter counter, String userKey, String roomId,
+                                                         String target, long unread, LegacyFlags legacy) {
+        // 그 사이 더 앞선 읽음 처리가 반영됐으면 뒤로 돌리지 않는다
+        if (counter.watermark != null && target != null && counter.watermark.compareTo(target) > 0) {
+            return CompletableFuture.completedFuture(result(counter.watermark, counter.unread));
+        }
+        counter.unread = unread;
+        counter.watermark = target;
+        counter.watermarkLoaded = true;
+
+        Map<String, Object> updates = new HashMap<>();
+        if (target != null) {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("lastReadMessageId", target);
+            state.put("lastReadAt", System.currentTimeMillis());
+            updates.put(CHATS + "/" + roomId + "/" + READ_STATE + "/" + userKey, state);
+        }
+        // 예전 read 플래그는 watermark 가 대신하므로 같은 갱신에서 지운다 (사용자/방마다 한 번)
+        if (legacy != null) legacy.paths.forEach(path -> updates.put(path, null));
+        return enqueue(counter, updates).thenApply(v -> result(target, unread));
+    }
+
+    /**
+     * counter 를 다음 flush 대상에 넣고, 같은 갱신에 함께 쓸 경로를 더한다. flush 가 끝나면 완료된다.
+     * counter 잠금 안에서 호출해야 flush 가 이 변경 이전 값을 읽은 채 끝나지 않는다.
+     */
+    private CompletableFuture<Void> enqueue(UnreadCounter counter, Map<String, Object> updates) {
+        synchronized (flushLock) {
+            dirtyCounters.put(counter.path, counter);
+            pendingUpdates.putAll(updates);
+            scheduleFlush();
+            return nextBatch;
+        }
+    }
+
+    // flushLock 안에서 호출한다
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        flusher.schedule(this::flushNow, flushWindowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** 모아 둔 unreadCount 를 창을 기다리지 않고 쓴다. 이 호출 전의 변경이 모두 기록되면 완료된다. */
+    public CompletableFuture<Void> flush() {
+        synchronized (flushLock) {
+            // 모인 것이 없으면 이미 내보낸 마지막 flush 만 기다리면 된다 (쓰기는 보낸 순서대로 반영된다)
+            if (dirtyCounters.isEmpty() && pendingUpdates.isEmpty()) return lastBatch;
+            flusher.execute(this::flushNow);
+            return nextBatch;
+        }
+    }
+
+    // flusher 스레드에서만 실행된다. 쓰기를 보내는 순서가 곧 RTDB 에 반영되는 순서다
+    private void flushNow() {
+        List<UnreadCounter> counters;
+        Map<String, Object> updates;
+        CompletableFuture<Void> batch;
+        synchronized (flushLock) {
+            flushScheduled = false;
+            if (dirtyCounters.isEmpty() && pendingUpdates.isEmpty()) return;
+            counters = new ArrayList<>(dirtyCounters.values());
+            updates = new HashMap<>(pendingUpdates);
+            dirtyCounters.clear();
+            pendingUpdates.clear();
+            batch = nextBatch;
+            lastBatch = batch;
+            nextBatch = new CompletableFuture<>();
+        }
+        // 값은 지금 읽는다. 그 뒤에 바뀐 카운터는 다시 dirty 가 되어 다음 flush 에 쓰인다
+        for (UnreadCounter counter : counters) {
+            synchronized (counter) {
+                updates.put(counter.path, counter.unread);
+            }
+        }
+        flushCount.incrementAndGet();
+        flushedCounters.addAndGet(counters.size());
+        chatRepository.commit(updates).whenComplete((v, e) -> {
+            if (e == null) {
+                batch.complete(null);
+                return;
+            }
+            failedFlushes.incrementAndGet();
+            System.out.println("❌ unreadCount 기록 실패 (" + counters.size() + "개, 다시 시도): " + e.getMessage());
+            // 메모리 값은 맞으므로 다음 flush 에 다시 쓴다. 그 사이 새로 쌓인 경로가 더 최신이다
+            synchronized (flushLock) {
+                counters.forEach(counter -> dirtyCounters.putIfAbsent(counter.path, counter));
+                updates.forEach((path, value) -> {
+                    if (!path.endsWith("/unreadCount")) pendingUpdates.putIfAbsent(path, value);
+                });
+                scheduleFlush();
+            }
+            batch.completeExceptionally(e);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, Object> result(String watermark, long unread) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("lastReadMessageId", watermark);
+        result.put("unreadCount", unread);
+        return result;
+    }
+
+    private static String min(String a, String b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static String max(String a, String b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private CompletableFuture<UnreadCounter> counter(String counterKey, String safeEmail, String roomId) {
+        return unreadCounters.get(counterKey, (key, executor) ->
+                chatRepository.unreadCount(safeEmail, roomId).thenApply(unread ->
+                        new UnreadCounter(CHAT_LIST + "/" + safeEmail + "/" + roomId + "/unreadCount", unread)));
+    }
+
+    public long getBufferedIncrements() {
+        return bufferedIncrements.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFlushedCounters() {
+        return flushedCounters.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    private static void putRow(Map<String, Object> updates, String owner, String roomId,
+                               String with, String text, long timestamp) {
+        String row = CHAT_LIST + "/" + owner + "/" + roomId + "/";
+        updates.put(row + "with", with);
+        updates.put(row + "lastMessage", text);
+        updates.put(row + "timestamp", timestamp);
+    }
+}
@@ -0,0 +1,346 @@
+// com/example/date_app/service/ChatStreamGateway.java
+package com.example.date_app.service;
+
+import com.example.date_app.repository.ChatRepository;
+import com.example.date_app.repository.Subscription;
+import com.example.date_app.util.ChatKeys;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.date_app.util.ChatKeys.CHATS;
+import static com.example.date_app.util.ChatKeys.CHAT_LIST;
+
+/**
+ * 채팅방 메시지 / 채팅 목록을 SSE 로 내보내는 게이트웨이.
+ * 브라우저 탭마다 RTDB 리스너를 갖던 것을, 열려 있는 방(또는 목록)마다 서버 쪽 리스너 하나로 모으고
+ * 바뀐 자식(메시지 한 건, chat_list 행 하나)만 이벤트로 보낸다. 목록 전체를 다시 보내지 않는다.
+ * 연결마다 보낼 이벤트 대기열은 크기가 정해져 있고, 같은 키의 대기 중 이벤트는 최신 값 하나로 합친다.
+ * 그래도 대기열이 넘치는(따라오지 못하는) 연결은 끊는다. 클라이언트는 다시 연결해 현재 상태부터 받는다.
+ * 대기열 상한은 토픽의 현재 상태(목록 행 / 방의 최근 메시지) 크기만큼 넉넉하게 잡는다. 새 연결이나 새 구독은 현재 상태를
+ * 한꺼번에 받으므로, 행이 queue-capacity 보다 많은 목록도 처음부터 넘치지 않는다. 상한은 그 위에 쌓인 변경에만 걸린다.
+ * heartbeat 는 게이트웨이 전용 스레드에서 돈다. 공용 @Scheduled 스레드가 다른 작업(추천 갱신 등)에 묶여도 멈추지 않는다.
+ */
+@Component
+public class ChatStreamGateway {
+
+    private static final String HEARTBEAT_KEY = "";
+
+    private final ChatRepository chatRepository;
+    private final ChatRoomAccess chatRoomAccess;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final int roomBacklog;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeats;
+
+    // 토픽 이름("room:{roomId}", "list:{safeEmail}") → 토픽. this 로 잠근다 (잠금 순서: gateway → topic → connection)
+    private final Map<String, Topic> topics = new HashMap<>();
+
+    private final AtomicLong upstreamEvents = new AtomicLong();
+    private final AtomicLong sentEvents = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong overflowDisconnects = new AtomicLong();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    public ChatStreamGateway(ChatRepository chatRepository,
+                             ChatRoomAccess chatRoomAccess,
+                             @Value("${chat.stream.timeout:30m}") Duration timeout,
+                             @Value("${chat.stream.queue-capacity:512}") int queueCapacity,
+                             @Value("${chat.stream.room-backlog:20}") int roomBacklog,
+                             @Value("${chat.stream.sender-threads:4}") int senderThreads,
+                             @Value("${chat.stream.heartbeat:PT25S}") Duration heartbeat) {
+        this.chatRepository = chatRepository;
+        this.chatRoomAccess = chatRoomAccess;
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+        this.roomBacklog = roomBacklog;
+        AtomicInteger threadCount = new AtomicInteger();
+        // 연결마다 drain 작업은 많아야 하나만 대기하므로 작업 큐 길이는 연결 수를 넘지 않는다
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "chat-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.heartbeats = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "chat-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * roomId 방의 메시지 스트림. 최근 room-backlog 개를 먼저 보내고 이후 새 메시지/변경만 보낸다.
+     * email 과 partnerEmail 의 방이 정확히 roomId 가 아니면 IllegalArgumentException.
+     */
+    public SseEmitter openRoom(String email, String roomId, String partnerEmail) {
+        try {
+            // 상대 계정 확인은 대부분 UidResolver 캐시에서 끝난다
+            chatRoomAccess.requireMember(email, roomId, partnerEmail).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        return open("room:" + roomId, CHATS + "/" + roomId + "/messages", roomBacklog, "message", "id");
+    }
+
+    /** email 사용자의 chat_list 스트림. 현재 행을 먼저 보내고 이후 바뀐 행만 보낸다. */
+    public SseEmitter openList(String email) {
+        String safeEmail = ChatKeys.safeEmail(email);
+        return open("list:" + safeEmail, CHAT_LIST + "/" + safeEmail, 0, "row", "roomId");
+    }
+
+    private SseEmitter open(String name, String path, int limitToLast, String eventName, String keyField) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection;
+        synchronized (this) {
+            Topic topic = topics.get(name);
+            boolean created = topic == null;
+            if (created) {
+                topic = new Topic(name, limitToLast, eventName, keyField);
+                topics.put(name, topic);
+            }
+            connection = new Connection(emitter, topic);
+            topic.join(connection);
+            // 리스너 이벤트는 topic 만 잠그므로 gateway 잠금 안에서 구독해도 된다
+            if (created) topic.subscription = chatRepository.watchChildren(path, limitToLast, topic);
+        }
+        openConnections.incrementAndGet();
+        emitter.onCompletion(() -> close(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(e -> close(connection));
+        return emitter;
+    }
+
+    private void close(Connection connection) {
+        synchronized (connection) {
+            if (connection.removed) return;
+            connection.closed = true;
+            connection.removed = true;
+            connection.queue.clear();
+        }
+        openConnections.decrementAndGet();
+
+        Subscription cancel = null;
+        synchronized (this) {
+            Topic topic = connection.topic;
+            boolean empty;
+            synchronized (topic) {
+                topic.connections.remove(connection);
+                empty = topic.connections.isEmpty();
+            }
+            // 마지막 연결이 나가면 RTDB 리스너도 뗀다
+            if (empty && topics.get(topic.name) == topic) {
+                topics.remove(topic.name);
+                cancel = topic.subscription;
+            }
+        }
+        if (cancel != null) cancel.cancel();
+        try {
+            connection.emitter.complete();
+        } catch (Exception ignored) {
+            // 이미 끝난 응답
+        }
+    }
+
+    /** 프록시가 유휴 연결을 끊지 않도록 주석 이벤트를 보낸다. 끊긴 연결도 이때 발견된다. */
+    void heartbeat() {
+        List<Connection> all = new ArrayList<>();
+        synchronized (this) {
+            for (Topic topic : topics.values()) {
+                synchronized (topic) {
+                    all.addAll(topic.connections);
+                }
+            }
+        }
+        for (Connection connection : all) connection.offer(HEARTBEAT_KEY, SseEmitter.event().comment("ping"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Subscription> subscriptions = new ArrayList<>();
+        synchronized (this) {
+            topics.values().forEach(topic -> subscriptions.add(topic.subscription));
+            topics.clear();
+        }
+        subscriptions.forEach(subscription -> {
+            if (subscription != null) subscription.cancel();
+        });
+        heartbeats.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    /** 같은 경로를 보는 연결들이 공유하는 RTDB 구독과 그 현재 상태 */
+    private final class Topic implements ChatRepository.ChildListener {
+
+        final String name;
+        final int backlog;
+        final String eventName;
+        final String keyField;
+        // 새 연결에 먼저 보낼 현재 상태. 방은 최근 backlog 개만 둔다
+        final LinkedHashMap<String, Map<String, Object>> state = new LinkedHashMap<>();
+        final Set<Connection> connections = new LinkedHashSet<>();
+        volatile Subscription subscription;
+        // 대기열 상한 계산용. topic 잠금 없이 읽는다
+        volatile int stateSize;
+
+        Topic(String name, int backlog, String eventName, String keyField) {
+            this.name = name;
+            this.backlog = backlog;
+            this.eventName = eventName;
+            this.keyField = keyField;
+        }
+
+        synchronized void join(Connection connection) {
+            connections.add(connection);
+            state.forEach((key, value) -> connection.offer(key, upsertEvent(key, value)));
+        }
+
+        @Override
+        public synchronized void onUpsert(String key, Map<String, Object> value) {
+            upstreamEvents.incrementAndGet();
+            state.put(key, value);
+            if (backlog > 0 && state.size() > backlog) {
+                state.remove(state.keySet().iterator().next());
+            }
+            stateSize = state.size();
+            for (Connection connection : connections) connection.offer(key, upsertEvent(key, value));
+        }
+
+        @Override
+        public synchronized void onRemove(String key) {
+            upstreamEvents.incrementAndGet();
+            if (state.remove(key) == null) return;
+            stateSize = state.size();
+            for (Connection connection : connections) {
+                connection.offer(key, SseEmitter.event().name("removed").data(Map.of(keyField, key), MediaType.APPLICATION_JSON));
+            }
+        }
+
+        @Override
+        public void onError(String message) {
+            System.out.println("❌ 채팅 스트림 구독 취소: " + name + " - " + message);
+            List<Connection> dropped;
+            synchronized (this) {
+                dropped = new ArrayList<>(connections);
+            }
+            // 연결을 끊으면 클라이언트가 다시 연결하면서 새로 구독한다
+            dropped.forEach(connection -> sender.execute(() -> close(connection)));
+        }
+
+        private SseEmitter.SseEventBuilder upsertEvent(String key, Map<String, Object> value) {
+            Map<String, Object> data = new LinkedHashMap<>(value);
+            data.put(keyField, key);
+            return SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /** SSE 연결 하나와 보낼 이벤트 대기열. 보내기는 sender 스레드에서 연결마다 한 번에 하나씩 한다 */
+    private final class Connection {
+
+        final SseEmitter emitter;
+        final Topic topic;
+        // 키 → 보낼 이벤트. 아직 못 보낸 같은 키의 이벤트는 최신 값으로 덮어쓴다
+        final LinkedHashMap<String, SseEmitter.SseEventBuilder> queue = new LinkedHashMap<>();
+        boolean draining;
+        boolean closed;
+        boolean removed;
+
+        Connection(SseEmitter emitter, Topic topic) {
+            this.emitter = emitter;
+            this.topic = topic;
+        }
+
+        void offer(String key, SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) return;
+                if (queue.remove(key) != null) {
+                    coalescedEvents.incrementAndGet();
+                } else if (queue.size() >= queueCapacity + topic.stateSize) {
+                    // 따라오지 못하는 연결: 잠금을 쥔 채 close 하지 않도록 sender 에 넘긴다
+                    closed = true;
+                    queue.clear();
+                    overflowDisconnects.incrementAndGet();
+                    sender.execute(() -> close(this));
+                    return;
+                }
+                queue.put(key, event);
+                if (draining) return;
+                draining = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                List<SseEmitter.SseEventBuilder> batch;
+                synchronized (this) {
+                    if (closed || queue.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(queue.values());
+                    queue.clear();
+                }
+                try {
+                    for (SseEmitter.SseEventBuilder event : batch) {
+                        emitter.send(event);
+                        sentEvents.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    close(this);
+                    return;
+                }
+            }
+        }
+    }
+
+    public synchronized int getTopicCount() {
+        return topics.size();
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public long getUpstreamEvents() {
+        return upstreamEvents.get();
+    }
+
+    public long getSentEvents() {
+        return sentEvents.get();
+    }
+
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    public long getOverflowDisconnects() {
+        return overflowDisconnects.get();
+    }
+}
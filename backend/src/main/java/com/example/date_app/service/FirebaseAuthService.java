@@ -2,55 +2,64 @@
 
 package com.example.date_app.service;
 
-import com.google.firebase.auth.FirebaseAuth;
+import com.example.date_app.model.UploadedImage;
+import com.example.date_app.model.VerifiedIdentity;
+import com.example.date_app.repository.ChatRepository;
+import com.example.date_app.repository.IdentityProvider;
+import com.example.date_app.repository.ProfileRepository;
+import com.example.date_app.util.ChatKeys;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
-import com.google.firebase.auth.UserRecord;
-import com.google.firebase.database.*;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Objects;
 import java.util.Map;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.Storage;
-import com.google.firebase.cloud.StorageClient;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 @Service
+@RequiredArgsConstructor
 public class FirebaseAuthService {
 
+    private final UidResolver uidResolver;
+    private final ProfileCache profileCache;
+    // 저장소 구현은 Spring 프로필로 고른다 (기본: Firebase, inmemory: 메모리 + 지연 주입)
+    private final IdentityProvider identityProvider;
+    private final ProfileRepository profileRepository;
+    private final ChatRepository chatRepository;
+    private final ChatHistoryService chatHistoryService;
+    private final FirebaseStorageService firebaseStorageService;
+
     public String registerUser(String email, String password) throws FirebaseAuthException {
-        UserRecord.CreateRequest request = new UserRecord.CreateRequest()
-                .setEmail(email)
-                .setPassword(password);
-        UserRecord userRecord = FirebaseAuth.getInstance().createUser(request);
-        return userRecord.getUid();
+        String uid = await(identityProvider.createUser(email, password));
+        uidResolver.prime(email, uid);
+        return uid;
     }
 
-    public UserRecord getUserByEmail(String email) throws FirebaseAuthException {
-        return FirebaseAuth.getInstance().getUserByEmail(email);
+    public VerifiedIdentity verifyIdToken(String idToken) throws FirebaseAuthException {
+        return await(verifyIdTokenAsync(idToken));
     }
 
-    public FirebaseToken verifyIdToken(String idToken) throws FirebaseAuthException {
-        return FirebaseAuth.getInstance().verifyIdToken(idToken);
+    /** email → UID. UidResolver 캐시를 거치므로 대부분 원격 호출 없이 끝난다. */
+    public String getUid(String email) throws FirebaseAuthException {
+        return uidResolver.resolve(email);
     }
 
     public void deleteUserByEmail(String email) throws FirebaseAuthException {
-        UserRecord user = getUserByEmail(email);
-        FirebaseAuth.getInstance().deleteUser(user.getUid());
+        String uid = getUid(email);
+        await(identityProvider.deleteUser(uid));
+        uidResolver.invalidate(email);
     }
 
     public void updateUserProfile(String email, String name, String birthdate, String gender, String bio, String mbti, List<String> tags, List<String> likeTags)
             throws FirebaseAuthException {
-        UserRecord user = FirebaseAuth.getInstance().getUserByEmail(email);
-        String uid = user.getUid();
-
-        DatabaseReference ref = FirebaseDatabase.getInstance().getReference("users")
-                .child(uid);
+        String uid = getUid(email);
 
         Map<String, Object> updates = new HashMap<>();
         updates.put("name", name);
@@ -61,74 +70,66 @@ public class FirebaseAuthService {
         updates.put("personality/tags", tags);
         updates.put("personality/likeTags", likeTags);
 
-        ref.updateChildrenAsync(updates);
+        writeThrough(uid, profileRepository.update(uid, updates));
     }
 
     public Map<String, Object> getUserProfile(String email) throws FirebaseAuthException {
-        UserRecord user = FirebaseAuth.getInstance().getUserByEmail(email);
-        String uid = user.getUid();
-
-        DatabaseReference ref = FirebaseDatabase.getInstance()
-                .getReference("users")
-                .child(uid);
-
-        CountDownLatch latch = new CountDownLatch(1);
-        final Map<String, Object>[] result = new Map[1];
-
-        ref.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    result[0] = (Map<String, Object>) snapshot.getValue();
-                } else {
-                    result[0] = new HashMap<>();
-                }
-                latch.countDown();
-            }
-
-            @Override
-            public void onCancelled(DatabaseError error) {
-                result[0] = new HashMap<>();
-                latch.countDown();
-            }
-        });
+        return await(getUserProfileAsync(email));
+    }
 
-        try {
-            latch.await();
-            Map<String, Object> profile = result[0];
+    /**
+     * 프로필 비동기 조회. 요청 스레드를 막지 않고, 저장소 콜백 스레드에서 바로 완료된다.
+     * 완료 스레드가 Firebase 이벤트 스레드이므로 무거운 후속 작업은 별도 Executor 로 넘겨야 한다.
+     */
+    public CompletableFuture<Map<String, Object>> getUserProfileAsync(String email) {
+        // 같은 사용자의 반복 조회는 ProfileCache 에서 끝난다. 반환 Map 은 캐시와 공유되므로 수정하지 말 것
+        return getUidAsync(email).thenCompose(uid -> profileCache.get(uid, this::loadProfile));
+    }
 
-            // profileImage 필드가 누락된 경우, 기본 이미지로 설정
-            if (!profile.containsKey("profileImage")) {
-                profile.put("profileImage", "/images/default-profile.png");
-            }
+    private CompletableFuture<Map<String, Object>> loadProfile(String uid) {
+        return profileRepository.find(uid)
+                .thenApply(profile -> withDefaults(profile != null ? profile : new HashMap<>()));
+    }
 
-            // 디폴트 키 처리
-            if (!profile.containsKey("personality")) {
-                profile.put("personality", new HashMap<String, Object>());
-            }
-            Map<String, Object> personality = (Map<String, Object>) profile.get("personality");
+    /**
+     * 쓰기 직후와 쓰기 완료 시점에 모두 캐시를 비운다.
+     * 완료 시점에 한 번 더 비워야 쓰기 도중 읽힌 이전 값이 캐시에 남지 않는다.
+     */
+    private CompletableFuture<Void> writeThrough(String uid, CompletableFuture<Void> write) {
+        profileCache.invalidate(uid);
+        return write.whenComplete((ignored, e) -> profileCache.invalidate(uid));
+    }
 
-            // personality 내의 필드 처리
-            if (!personality.containsKey("likeTags")) {
-                personality.put("likeTags", new ArrayList<>());
-            }
+    private Map<String, Object> withDefaults(Map<String, Object> profile) {
+        // profileImage 필드가 누락된 경우, 기본 이미지로 설정
+        if (!profile.containsKey("profileImage")) {
+            profile.put("profileImage", "/images/default-profile.png");
+        }
 
-            return profile;
+        // 디폴트 키 처리
+        if (!profile.containsKey("personality")) {
+            profile.put("personality", new HashMap<String, Object>());
+        }
+        Map<String, Object> personality = (Map<String, Object>) profile.get("personality");
 
-        } catch (InterruptedException e) {
-            throw new RuntimeException("데이터 가져오기 실패", e);
+        // personality 내의 필드 처리
+        if (!personality.containsKey("likeTags")) {
+            personality.put("likeTags", new ArrayList<>());
         }
-    }
 
+        return profile;
+    }
 
     public void createInitialUserProfile(String email) throws FirebaseAuthException {
-        UserRecord user = getUserByEmail(email);
-        String uid = user.getUid();
+        String uid = getUid(email);
+        writeThrough(uid, profileRepository.save(uid, initialProfile(email)));
+    }
 
-        DatabaseReference ref = FirebaseDatabase.getInstance()
-                .getReference("users")
-                .child(uid);
+    public CompletableFuture<Void> createInitialUserProfileAsync(String email) {
+        return getUidAsync(email).thenCompose(uid -> writeThrough(uid, profileRepository.save(uid, initialProfile(email))));
+    }
 
+    private Map<String, Object> initialProfile(String email) {
         Map<String, Object> profile = new HashMap<>();
         profile.put("email", email);
         profile.put("name", "");
@@ -136,166 +137,155 @@ public class FirebaseAuthService {
         profile.put("bio", "");
         profile.put("gender", "");
         profile.put("personality", Map.of("mbti", "", "tags", List.of()));
-
-        ref.setValueAsync(profile);
+        return profile;
     }
 
     public boolean userProfileExists(String email) throws FirebaseAuthException {
-        try {
-            UserRecord user = getUserByEmail(email);
-            String uid = user.getUid();
-
-            DatabaseReference ref = FirebaseDatabase.getInstance()
-                    .getReference("users")
-                    .child(uid);
-
-            final boolean[] exists = {false};
-            CountDownLatch latch = new CountDownLatch(1);
-
-            ref.addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(DataSnapshot snapshot) {
-                    exists[0] = snapshot.exists();
-                    latch.countDown();
-                }
-
-                @Override
-                public void onCancelled(DatabaseError error) {
-                    latch.countDown();
-                }
-            });
+        return await(userProfileExistsAsync(email));
+    }
 
-            latch.await();
-            return exists[0];
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("프로필 존재 여부 확인 중 인터럽트 발생", e);
-        }
+    public CompletableFuture<Boolean> userProfileExistsAsync(String email) {
+        return getUidAsync(email)
+                .thenCompose(profileRepository::find)
+                .thenApply(profile -> profile != null);
     }
 
     public List<Map<String, Object>> getAllUserProfiles() {
         try {
-            DatabaseReference ref = FirebaseDatabase.getInstance().getReference("users");
-
-            List<Map<String, Object>> resultList = new ArrayList<>();
-            CountDownLatch latch = new CountDownLatch(1);
-
-            ref.addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(DataSnapshot snapshot) {
-                    for (DataSnapshot child : snapshot.getChildren()) {
-                        Object value = child.getValue();
-                        if (value instanceof Map) {
-                            resultList.add((Map<String, Object>) value);
-                        }
-                    }
-                    latch.countDown();
-                }
-
-                @Override
-                public void onCancelled(DatabaseError error) {
-                    latch.countDown();
-                }
-            });
+            return await(getAllUserProfilesAsync());
+        } catch (FirebaseAuthException e) {
+            throw new RuntimeException("전체 프로필 조회 실패", e);
+        }
+    }
+
+    public CompletableFuture<List<Map<String, Object>>> getAllUserProfilesAsync() {
+        return profileRepository.findAll();
+    }
 
-            latch.await();
-            return resultList;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("전체 프로필 조회 중 인터럽트 발생", e);
+    public CompletableFuture<String> getUidAsync(String email) {
+        return uidResolver.resolveAsync(email);
+    }
+
+    public CompletableFuture<VerifiedIdentity> verifyIdTokenAsync(String idToken) {
+        return identityProvider.verifyIdToken(idToken);
+    }
+
+    /** 동기 API 용: 비동기 결과를 (제한 시간 안에서) 기다리고, FirebaseAuthException 은 그대로 던진다. */
+    private static <T> T await(CompletableFuture<T> future) throws FirebaseAuthException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof FirebaseAuthException authException) {
+                throw authException;
+            }
+            throw new RuntimeException("데이터 가져오기 실패", e.getCause());
         }
     }
 
     public void updateProfileImageUrl(String email, String imageUrl) throws FirebaseAuthException {
-        UserRecord user = getUserByEmail(email);
-        String uid = user.getUid();
+        String uid = getUid(email);
+        writeThrough(uid, profileRepository.update(uid, Map.of("profileImage", imageUrl)));
+    }
+
+    /**
+     * 새 원본 이미지를 기록한다. 파생 이미지(profileImageVariants)는 ProfileImagePipeline 이 채운다.
+     * 이전 이미지의 파생 URL 은 같은 갱신에서 지운다. 파이프라인 대기열이 차서 작업이 버려져도 예전 사진이 남지 않는다.
+     */
+    public void updateProfileImage(String email, UploadedImage image) throws FirebaseAuthException {
+        String uid = getUid(email);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("profileImage", image.url());
+        updates.put("profileImageHash", image.sha256());
+        updates.put("profileImageVariants", null);
+        writeThrough(uid, profileRepository.update(uid, updates));
+    }
 
-        DatabaseReference ref = FirebaseDatabase.getInstance()
-                .getReference("users")
-                .child(uid)
-                .child("profileImage");
+    /**
+     * 목록에 띄울 썸네일 URL (email → avatar, 파생 이미지가 없으면 원본). 가입되지 않았거나 읽지 못한 email 은 빠진다.
+     * 프로필은 ProfileCache 를 거치므로 같은 상대를 반복해서 물어도 RTDB 를 다시 읽지 않는다.
+     */
+    public CompletableFuture<Map<String, String>> getAvatarUrlsAsync(Collection<String> emails) {
+        Map<String, CompletableFuture<String>> lookups = new LinkedHashMap<>();
+        for (String email : emails) {
+            lookups.computeIfAbsent(email, key -> getUserProfileAsync(key)
+                    .thenApply(ProfileImagePipeline.Variant.AVATAR::urlIn)
+                    .exceptionally(e -> null));
+        }
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<String, String> avatars = new LinkedHashMap<>();
+            lookups.forEach((email, lookup) -> {
+                String url = lookup.join();
+                if (url != null) avatars.put(email, url);
+            });
+            return avatars;
+        });
+    }
 
-        ref.setValueAsync(imageUrl);
+    /**
+     * 파생 이미지 URL 을 profileImage 옆(profileImageVariants)에 기록한다. variants 가 null 이면 지운다.
+     * 그 사이 다른 이미지로 바뀌었으면(profileImageHash 불일치) 기록하지 않고 false 로 완료된다.
+     */
+    public CompletableFuture<Boolean> recordProfileImageVariants(String email, String sha256, Map<String, Object> variants) {
+        return getUidAsync(email).thenCompose(uid -> profileRepository.find(uid).thenCompose(profile -> {
+            if (profile == null || !Objects.equals(profile.get("profileImageHash"), sha256)) {
+                return CompletableFuture.completedFuture(false);
+            }
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("profileImageVariants", variants);
+            return writeThrough(uid, profileRepository.update(uid, updates)).thenApply(v -> true);
+        }));
     }
 
     public void deleteUserData(String email) throws FirebaseAuthException {
-        UserRecord user = getUserByEmail(email);
-        String uid = user.getUid();
-
-        DatabaseReference ref = FirebaseDatabase.getInstance()
-                .getReference("users")
-                .child(uid);
-        ref.removeValueAsync(); // DB에서 사용자 프로필 삭제
+        String uid = getUid(email);
+        writeThrough(uid, profileRepository.delete(uid)); // DB에서 사용자 프로필 삭제 + 캐시 제거
     }
 
+    /** uid 의 원본/파생 이미지 blob 을 모두 지운다 (업로드 이름: profileImages/{uid}/..., 예전 이름: profileImages/{uid}_...). */
     public void deleteUserProfileImage(String userId) {
-        Storage storage = StorageClient.getInstance().bucket().getStorage();
-        String objectName = "profileImages/" + userId;
-
-        BlobId blobId = BlobId.of(StorageClient.getInstance().bucket().getName(), objectName);
-        storage.delete(blobId); // Firebase Storage에서 이미지 삭제
+        try {
+            int deleted = firebaseStorageService.deleteProfileImages(userId, null); // Firebase Storage에서 이미지 삭제
+            System.out.println("🗑️ 프로필 이미지 " + deleted + "개 삭제: " + userId);
+        } catch (RuntimeException e) {
+            // Storage 는 저장소 추상화 밖이라 inmemory 프로필에서는 FirebaseApp 이 없다. 계정 삭제는 계속 진행한다
+            System.out.println("⚠️ 프로필 이미지 삭제 건너뜀: " + e.getMessage());
+        }
     }
 
     public void deleteAllUserData(String email) throws FirebaseAuthException {
-        UserRecord user = getUserByEmail(email);
-        String uid = user.getUid();
+        String uid = getUid(email);
 
-        deleteUserData(email);                          // Firebase DB 삭제
+        deleteUserData(email);                          // 프로필 삭제
         deleteUserProfileImage(uid);                    // Firebase Storage 이미지 삭제
         deleteChatRoomsContainingUser(email);           // 채팅 삭제
         deleteChatListEntries(email);                   // 채팅목록 삭제
-        FirebaseAuth.getInstance().deleteUser(uid);     // Firebase Auth 계정 삭제
+        await(identityProvider.deleteUser(uid));        // 인증 계정 삭제
+        uidResolver.invalidate(email);                  // UID 캐시 제거
     }
 
+    /** user_rooms 역색인에 있는 이 사용자의 채팅방만 지운다. */
     public void deleteChatRoomsContainingUser(String email) {
-        String safeEmail = email.replace(".", "_dot_").replace("@", "_at_");
-
-        DatabaseReference chatsRef = FirebaseDatabase.getInstance().getReference("chats");
-
-        chatsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                for (DataSnapshot chatRoom : snapshot.getChildren()) {
-                    String roomId = chatRoom.getKey();
-                    if (roomId != null && roomId.contains(safeEmail)) {
-                        chatsRef.child(roomId).removeValueAsync();
-                    }
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError error) {
-                System.out.println("채팅 삭제 실패: " + error.getMessage());
-            }
-        });
+        chatRepository.deleteRoomsOf(ChatKeys.safeEmail(email))
+                .thenAccept(rooms -> {
+                    chatHistoryService.invalidateRoomsOf(email);
+                    System.out.println("🗑️ 채팅방 " + rooms + "개 삭제: " + email);
+                })
+                .exceptionally(e -> {
+                    System.out.println("채팅 삭제 실패: " + e.getMessage());
+                    return null;
+                });
     }
 
+    /** 이 사용자의 chat_list 에 기록된 대화 상대들의 항목만 지운다. 삭제 건수와 걸린 시간을 남긴다. */
     public void deleteChatListEntries(String email) {
-        String safeEmail = email.replace(".", "_dot_").replace("@", "_at_");
-
-        DatabaseReference chatListRef = FirebaseDatabase.getInstance().getReference("chat_list");
-
-        // 1. 자신의 chat_list 항목 삭제
-        chatListRef.child(safeEmail).removeValueAsync();
-
-        // 2. 다른 사람들의 chat_list에서 이 유저가 포함된 항목 삭제
-        chatListRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                for (DataSnapshot userEntry : snapshot.getChildren()) {
-                    String otherUser = userEntry.getKey();
-                    if (otherUser == null) continue;
-
-                    // /chat_list/otherUser/safeEmail 삭제
-                    chatListRef.child(otherUser).child(safeEmail).removeValueAsync();
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError error) {
-                System.out.println("chat_list 정리 실패: " + error.getMessage());
-            }
-        });
+        long start = System.currentTimeMillis();
+        chatRepository.deleteChatListOf(ChatKeys.safeEmail(email))
+                .thenAccept(entries -> System.out.println("🗑️ chat_list 항목 " + entries + "개 삭제 ("
+                        + (System.currentTimeMillis() - start) + "ms): " + email))
+                .exceptionally(e -> {
+                    System.out.println("chat_list 정리 실패: " + e.getMessage());
+                    return null;
+                });
     }
 
 }
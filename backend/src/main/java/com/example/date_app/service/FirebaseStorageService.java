@@ -1,34 +1,244 @@
 package com.example.date_app.service;
 
+import com.example.date_app.model.UploadedImage;
+import com.example.date_app.util.ImageFormat;
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.*;
-import com.google.firebase.FirebaseApp;
 import com.google.firebase.cloud.StorageClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 프로필 이미지 업로드.
+ * 파일 전체를 byte[] 로 올리지 않고, multipart 입력 스트림을 고정 크기 버퍼로 읽어 WriteChannel(재개 가능 업로드)에 청크 단위로 보낸다.
+ * 업로드 하나가 쓰는 힙은 복사 버퍼(buffer-size) + WriteChannel 청크 버퍼(chunk-size) 로 파일 크기와 무관하게 고정된다.
+ * 원본은 profileImages/{uid}/{sha256} 에 내용 주소로 저장해, 같은 사용자가 같은 파일을 다시 올리면 업로드를 건너뛴다.
+ * 파생 이미지(ProfileImagePipeline)는 profileImages/{uid}/{sha256}_{variant}.jpg 에 둔다.
+ */
 @Service
 public class FirebaseStorageService {
 
-    public String uploadProfileImage(MultipartFile file, String userId) throws IOException {
-        // ✅ FirebaseApp 기반 StorageClient 사용
-        Storage storage = StorageClient.getInstance().bucket().getStorage();
+    private final int chunkSize;
+    private final int bufferSize;
+    private final long maxBytes;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+
+    public FirebaseStorageService(@Value("${storage.upload.chunk-size:256KB}") DataSize chunkSize,
+                                  @Value("${storage.upload.buffer-size:64KB}") DataSize bufferSize,
+                                  @Value("${storage.upload.max-size:5MB}") DataSize maxSize) {
+        this.chunkSize = (int) chunkSize.toBytes();
+        this.bufferSize = (int) Math.max(bufferSize.toBytes(), ImageFormat.HEADER_LENGTH);
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    public UploadedImage uploadProfileImage(MultipartFile file, String userId) throws IOException {
+        if (file.isEmpty()) {
+            rejectedCount.incrementAndGet();
+            throw new IllegalArgumentException("빈 파일입니다.");
+        }
+        if (file.getSize() > maxBytes) {
+            rejectedCount.incrementAndGet();
+            throw new IllegalArgumentException("이미지는 " + maxBytes / 1024 + "KB 이하만 업로드할 수 있습니다.");
+        }
+
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            byte[] buffer = new byte[bufferSize];
+
+            // 1차: 형식 확인 + SHA-256. multipart 는 디스크 임시 파일이라 다시 읽어도 힙을 쓰지 않는다
+            ImageFormat format;
+            String sha256;
+            try (InputStream in = file.getInputStream()) {
+                // 앞부분으로 형식 확인 (클라이언트가 보낸 Content-Type 은 믿지 않는다)
+                int headerLength = in.readNBytes(buffer, 0, ImageFormat.HEADER_LENGTH);
+                format = ImageFormat.detect(buffer, headerLength);
+                if (format == null) {
+                    rejectedCount.incrementAndGet();
+                    throw new IllegalArgumentException("지원하지 않는 이미지 형식입니다. (JPEG/PNG/GIF/WebP)");
+                }
+                sha256 = sha256(in, buffer, headerLength);
+            }
+
+            // ✅ FirebaseApp 기반 StorageClient 사용
+            Storage storage = StorageClient.getInstance().bucket().getStorage();
+
+            String bucketName = StorageClient.getInstance().bucket().getName();
+            String fileName = "profileImages/" + userId + "/" + sha256;
+            BlobId blobId = BlobId.of(bucketName, fileName);
+
+            if (storage.get(blobId) != null) {
+                deduplicatedCount.incrementAndGet();
+                return new UploadedImage(fileName, downloadUrl(bucketName, fileName), sha256, format, true);
+            }
+
+            System.out.println("🔥 업로드 대상 버킷: " + bucketName);
+
+            BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
+                    .setContentType(format.contentType())
+                    .build();
 
+            // 2차: 같은 버퍼로 청크 단위 업로드
+            long written;
+            try (InputStream in = file.getInputStream()) {
+                WriteChannel writer = storage.writer(blobInfo);
+                writer.setChunkSize(chunkSize);
+                try {
+                    written = copy(in, writer, buffer, 0, maxBytes);
+                } catch (IllegalArgumentException e) {
+                    // close() 를 부르지 않으면 업로드가 확정되지 않고 세션만 만료된다
+                    rejectedCount.incrementAndGet();
+                    throw e;
+                }
+                writer.close(); // 남은 청크 전송 + 업로드 확정
+            }
+
+            completedCount.incrementAndGet();
+            uploadedBytes.addAndGet(written);
+
+            return new UploadedImage(fileName, downloadUrl(bucketName, fileName), sha256, format, false);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /** 파생 이미지처럼 크기가 작은 blob 을 한 번에 올리고 다운로드 URL 을 돌려준다. */
+    public String storeDerivative(String fileName, byte[] jpeg) {
+        Storage storage = StorageClient.getInstance().bucket().getStorage();
         String bucketName = StorageClient.getInstance().bucket().getName();
-        String fileName = "profileImages/" + userId + "_" + UUID.randomUUID();
+        storage.create(BlobInfo.newBuilder(BlobId.of(bucketName, fileName)).setContentType("image/jpeg").build(), jpeg);
+        return downloadUrl(bucketName, fileName);
+    }
+
+    public boolean exists(String fileName) {
+        Storage storage = StorageClient.getInstance().bucket().getStorage();
+        return storage.get(BlobId.of(StorageClient.getInstance().bucket().getName(), fileName)) != null;
+    }
+
+    public String downloadUrl(String fileName) {
+        return downloadUrl(StorageClient.getInstance().bucket().getName(), fileName);
+    }
 
-        System.out.println("🔥 업로드 대상 버킷: " + bucketName);
+    /** blob 을 스트림으로 읽는다 (ReadChannel 이 청크 단위로 받아 온다). */
+    public InputStream open(String fileName) {
+        Storage storage = StorageClient.getInstance().bucket().getStorage();
+        return Channels.newInputStream(storage.reader(BlobId.of(StorageClient.getInstance().bucket().getName(), fileName)));
+    }
 
-        BlobId blobId = BlobId.of(bucketName, fileName);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                .setContentType(file.getContentType())
-                .build();
+    /**
+     * uid 의 프로필 이미지 blob 중 keepSha256 원본/파생 이미지가 아닌 것을 모두 지운다. keepSha256 가 null 이면 전부 지운다.
+     * 예전 업로드 이름(profileImages/{uid}_{uuid})도 함께 정리한다. 지운 blob 수를 돌려준다.
+     */
+    public int deleteProfileImages(String userId, String keepSha256) {
+        Storage storage = StorageClient.getInstance().bucket().getStorage();
+        String bucketName = StorageClient.getInstance().bucket().getName();
+        String keepPrefix = keepSha256 != null ? "profileImages/" + userId + "/" + keepSha256 : null;
 
-        storage.create(blobInfo, file.getBytes());
+        List<BlobId> superseded = new ArrayList<>();
+        for (String prefix : List.of("profileImages/" + userId + "/", "profileImages/" + userId + "_")) {
+            for (Blob blob : storage.list(bucketName, Storage.BlobListOption.prefix(prefix)).iterateAll()) {
+                if (keepPrefix == null || !blob.getName().startsWith(keepPrefix)) {
+                    superseded.add(blob.getBlobId());
+                }
+            }
+        }
+        if (superseded.isEmpty()) return 0;
+        storage.delete(superseded);
+        return superseded.size();
+    }
 
+    private static String downloadUrl(String bucketName, String fileName) {
         return "https://firebasestorage.googleapis.com/v0/b/" + bucketName + "/o/" +
                 fileName.replace("/", "%2F") + "?alt=media";
     }
+
+    /** buffer 앞의 buffered 바이트와 나머지 스트림의 SHA-256(hex). 읽은 양이 maxBytes 를 넘으면 중단한다. */
+    private String sha256(InputStream in, byte[] buffer, int buffered) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long total = 0;
+        int n = buffered;
+        do {
+            total += n;
+            if (total > maxBytes) {
+                rejectedCount.incrementAndGet();
+                throw new IllegalArgumentException("이미지는 " + maxBytes / 1024 + "KB 이하만 업로드할 수 있습니다.");
+            }
+            digest.update(buffer, 0, n);
+        } while ((n = in.read(buffer)) != -1);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * buffer 앞의 buffered 바이트와 나머지 스트림을 buffer 크기 단위로 out 에 쓴다.
+     * 실제로 읽은 양이 maxBytes 를 넘으면 (multipart 크기 정보와 다르더라도) 중단한다.
+     */
+    static long copy(InputStream in, WritableByteChannel out, byte[] buffer, int buffered, long maxBytes) throws IOException {
+        long total = 0;
+        int n = buffered;
+        do {
+            total += n;
+            if (total > maxBytes) {
+                throw new IllegalArgumentException("이미지는 " + maxBytes / 1024 + "KB 이하만 업로드할 수 있습니다.");
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+            while (chunk.hasRemaining()) {
+                out.write(chunk);
+            }
+        } while ((n = in.read(buffer)) != -1);
+        return total;
+    }
+
+    /** 업로드 하나가 잡는 힙 상한 (복사 버퍼 + WriteChannel 청크 버퍼) */
+    public long getPerUploadBufferBytes() {
+        return (long) bufferSize + chunkSize;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicatedCount.get();
+    }
+
+    public long getUploadedBytes() {
+        return uploadedBytes.get();
+    }
 }
@@ -1,163 +1,251 @@
 package com.example.date_app.service;
 
 import com.example.date_app.dto.MatchRecommendation;
+import com.example.date_app.model.Candidate;
+import com.example.date_app.model.Mbti;
+import com.example.date_app.model.RecommendationCursor;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.model.UserProfile;
+import com.example.date_app.util.MbtiCompatibility;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
-
-import static java.util.Map.entry;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 @RequiredArgsConstructor
 @Service
 public class MatchScoringService {
 
-    private final FirebaseAuthService firebaseAuthService;
-
-    private static final Map<String, Map<String, Integer>> mbtiCompatibility = Map.ofEntries(
-            entry("INFP", Map.ofEntries(
-                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 5),
-                    entry("INTJ", 4), entry("ENTJ", 5), entry("INTP", 4), entry("ENTP", 4),
-                    entry("ISFP", 1), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
-                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
-            )),
-            entry("ENFP", Map.ofEntries(
-                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 5), entry("ENFJ", 4),
-                    entry("INTJ", 5), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 4),
-                    entry("ISFP", 1), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
-                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
-            )),
-            entry("INFJ", Map.ofEntries(
-                    entry("INFP", 4), entry("ENFP", 5), entry("INFJ", 4), entry("ENFJ", 4),
-                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 5),
-                    entry("ISFP", 1), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
-                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
-            )),
-            entry("ENFJ", Map.ofEntries(
-                    entry("INFP", 5), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 4),
-                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 4),
-                    entry("ISFP", 5), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
-                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
-            )),
-            entry("INTJ", Map.ofEntries(
-                    entry("INFP", 4), entry("ENFP", 5), entry("INFJ", 4), entry("ENFJ", 4),
-                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 5),
-                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
-                    entry("ISFJ", 2), entry("ESFJ", 2), entry("ISTJ", 2), entry("ESTJ", 2)
-            )),
-            entry("ENTJ", Map.ofEntries(
-                    entry("INFP", 5), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 4),
-                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 5), entry("ENTP", 4),
-                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
-                    entry("ISFJ", 3), entry("ESFJ", 3), entry("ISTJ", 3), entry("ESTJ", 3)
-            )),
-            entry("INTP", Map.ofEntries(
-                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 4),
-                    entry("INTJ", 4), entry("ENTJ", 5), entry("INTP", 4), entry("ENTP", 4),
-                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
-                    entry("ISFJ", 2), entry("ESFJ", 2), entry("ISTJ", 2), entry("ESTJ", 5)
-            )),
-            entry("ENTP", Map.ofEntries(
-                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 5), entry("ENFJ", 4),
-                    entry("INTJ", 5), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 4),
-                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
-                    entry("ISFJ", 2), entry("ESFJ", 2), entry("ISTJ", 2), entry("ESTJ", 2)
-            )),
-            entry("ISFP", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 5),
-                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
-                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
-                    entry("ISFJ", 3), entry("ESFJ", 5), entry("ISTJ", 3), entry("ESTJ", 5)
-            )),
-            entry("ESFP", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 5),
-                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
-                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
-                    entry("ISFJ", 5), entry("ESFJ", 3), entry("ISTJ", 5), entry("ESTJ", 3)
-            )),
-            entry("ISTP", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
-                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
-                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
-                    entry("ISFJ", 3), entry("ESFJ", 5), entry("ISTJ", 3), entry("ESTJ", 5)
-            )),
-            entry("ESTP", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
-                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
-                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
-                    entry("ISFJ", 5), entry("ESFJ", 3), entry("ISTJ", 5), entry("ESTJ", 3)
-            )),
-            entry("ISFJ", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
-                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 2), entry("ENTP", 2),
-                    entry("ISFP", 3), entry("ESFP", 5), entry("ISTP", 3), entry("ESTP", 5),
-                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
-            )),
-            entry("ESFJ", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
-                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 2), entry("ENTP", 2),
-                    entry("ISFP", 5), entry("ESFP", 3), entry("ISTP", 5), entry("ESTP", 3),
-                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
-            )),
-            entry("ISTJ", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
-                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 2), entry("ENTP", 2),
-                    entry("ISFP", 3), entry("ESFP", 5), entry("ISTP", 3), entry("ESTP", 5),
-                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
-            )),
-            entry("ESTJ", Map.ofEntries(
-                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
-                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 5), entry("ENTP", 2),
-                    entry("ISFP", 5), entry("ESFP", 3), entry("ISTP", 5), entry("ESTP", 3),
-                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
-            ))
-    );
-
-    public MatchRecommendation calculateScore(
-            String myEmail,
-            String myGender,
-            String myMbti,
-            List<String> myTags,
-            Map<String, Object> targetProfile
-    ) {
-        if (Objects.equals(myEmail, targetProfile.get("email"))) return null;
-        if (Objects.equals(myGender, targetProfile.get("gender"))) return null;
-
-        Map<String, Object> theirPersonality = (Map<String, Object>) targetProfile.getOrDefault("personality", Map.of());
-        String theirMbti = (String) theirPersonality.getOrDefault("mbti", "");
-        List<String> theirTags = (List<String>) theirPersonality.getOrDefault("tags", List.of());
-
-        int score = 0;
-
-        // mbti 궁합 점수
-        if (mbtiCompatibility.containsKey(myMbti)) {
-            score += mbtiCompatibility.get(myMbti).getOrDefault(theirMbti, 0);
-        }
+    /** calculateScore 가 후보를 제외할 때 돌려주는 값 */
+    public static final int EXCLUDED = -1;
+
+    /** 추천 목록 정렬 순서: 점수 내림차순, 같은 점수는 email 오름차순 */
+    public static final Comparator<MatchRecommendation> RANKING =
+            Comparator.comparingInt(MatchRecommendation::getScore).reversed()
+                    .thenComparing(MatchRecommendation::getEmail);
+
+    private final TagDictionary tagDictionary;
+
+    /**
+     * RTDB 프로필 Map → UserProfile. 원본 Map 을 해석하는 곳은 여기 한 군데뿐이다.
+     * 태그 문자열은 TagDictionary ID 비트셋으로, mbti 는 enum 으로, 생년월일은 epoch day 로 바꾼다.
+     */
+    public UserProfile decode(Map<String, Object> profile) {
+        Object personalityValue = profile.get("personality");
+        Map<String, Object> personality = personalityValue instanceof Map
+                ? (Map<String, Object>) personalityValue : Map.of();
+        String mbtiType = (String) personality.getOrDefault("mbti", "");
+        Mbti mbti = Mbti.parse(mbtiType);
+        return new UserProfile(
+                (String) profile.get("email"),
+                (String) profile.getOrDefault("name", ""),
+                (String) profile.get("gender"),
+                (String) profile.get("bio"),
+                epochDay((String) profile.get("birthdate")),
+                (String) profile.get("profileImage"),
+                ProfileImagePipeline.Variant.AVATAR.urlIn(profile),
+                ProfileImagePipeline.Variant.CARD.urlIn(profile),
+                mbti,
+                mbti != null ? mbti.name() : mbtiType,
+                tagDictionary.toBits((List<String>) personality.getOrDefault("tags", List.of())),
+                tagDictionary.toBits((List<String>) personality.getOrDefault("likeTags", List.of()))
+        );
+    }
 
-        // likeTags 추출 및 점수 반영
-        List<String> myLikeTags = List.of(); // 기본값
+    private static int epochDay(String birthdate) {
+        if (birthdate == null || birthdate.isBlank()) return UserProfile.UNKNOWN_BIRTHDATE;
         try {
-            Map<String, Object> myProfile = firebaseAuthService.getUserProfile(myEmail);
-            Map<String, Object> myPersonality = (Map<String, Object>) myProfile.getOrDefault("personality", Map.of());
-            myLikeTags = (List<String>) myPersonality.getOrDefault("likeTags", List.of());
-        } catch (Exception e) {
-            System.out.println("likeTags 불러오기 실패: " + e.getMessage());
+            return (int) LocalDate.parse(birthdate).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return UserProfile.UNKNOWN_BIRTHDATE;
         }
+    }
 
-        List<String> likedTagsMatched = myLikeTags.stream()
-                .filter(theirTags::contains)
-                .collect(Collectors.toList());
-        score += likedTagsMatched.size();
+    /** 요청자 프로필을 한 번만 해석해서 점수 계산용 컨텍스트로 만든다. */
+    public RequesterContext requesterContext(String email, Map<String, Object> profile) {
+        return decode(profile).toRequester(email);
+    }
 
+    /** RTDB 프로필 Map → 점수 계산용 후보. 프로필이 바뀔 때만 호출된다. */
+    public Candidate toCandidate(Map<String, Object> profile) {
+        return decode(profile).toCandidate();
+    }
 
-        return new MatchRecommendation(
-                (String) targetProfile.get("email"),
-                (String) targetProfile.getOrDefault("name", "익명"),
-                theirMbti,
-                score
-        );
+    public List<Candidate> toCandidates(Collection<Map<String, Object>> profiles) {
+        List<Candidate> candidates = new ArrayList<>(profiles.size());
+        for (Map<String, Object> profile : profiles) {
+            candidates.add(toCandidate(profile));
+        }
+        return candidates;
+    }
+
+    /**
+     * 후보 풀 전체를 한 번에 점수 계산한다. 요청자 정보는 me 로 한 번만 받고,
+     * 제외되지 않은 후보만 MatchRecommendation 으로 만든다. (정렬은 하지 않음)
+     */
+    public List<MatchRecommendation> scoreAll(RequesterContext me, Collection<Candidate> candidates) {
+        List<MatchRecommendation> result = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            int score = calculateScore(me, candidate);
+            if (score == EXCLUDED) continue;
+            result.add(MatchRecommendation.of(candidate, score));
+        }
+        return result;
+    }
+
+    /**
+     * 정렬 순서상 after 뒤에 오는 후보 중 상위 limit 명만 고른다.
+     * 크기 limit 의 최소 힙을 유지하므로 O(N log K) 이고, 힙에 들어가는 후보만 DTO 를 만든다.
+     *
+     * @param after 이전 페이지 마지막 항목 (첫 페이지면 null)
+     * @return RANKING 순서로 정렬된 최대 limit 개
+     */
+    public List<MatchRecommendation> topK(RequesterContext me, Collection<Candidate> candidates,
+                                          int limit, RecommendationCursor after) {
+        if (limit <= 0) return List.of();
+        // 힙의 루트 = 지금까지 뽑힌 것 중 가장 순위가 낮은 항목
+        PriorityQueue<MatchRecommendation> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Candidate candidate : candidates) {
+            offer(heap, limit, me, candidate, after);
+        }
+        return sorted(heap);
+    }
+
+    /**
+     * 역색인을 쓰는 topK. 결과는 {@link #topK(RequesterContext, Collection, int, RecommendationCursor)} 와 같다.
+     * 제외 대상은 비트맵 연산으로 먼저 빼고, likeTags 겹침이 많은 묶음부터 점수를 계산한다.
+     * 남은 묶음의 점수 상한(겹침 수 + MBTI 최고점)이 힙의 최저 점수보다 낮아지면 나머지는 보지 않는다.
+     */
+    public List<MatchRecommendation> topK(RequesterContext me, CandidateIndex index,
+                                          int limit, RecommendationCursor after) {
+        return topK(me, index, limit, after, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 병렬 topK. 묶음이 chunkSize 보다 크면 workers 에서 chunkSize 단위로 나눠 각자 크기 limit 의 힙을 만들고 끝에서 합친다.
+     * 순위는 (score, email) 전순서이므로 나누는 방식과 관계없이 결과는 순차 버전과 같다.
+     *
+     * @param workers null 이면 순차 실행
+     */
+    public List<MatchRecommendation> topK(RequesterContext me, CandidateIndex index, int limit,
+                                          RecommendationCursor after, ForkJoinPool workers, int chunkSize) {
+        if (limit <= 0) return List.of();
+        PriorityQueue<MatchRecommendation> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        List<RoaringBitmap> levels = index.overlapLevels(index.eligibleFor(me), me.likeTagBits());
+        int top = levels.size() - 1;
+        for (int t = top; t >= 0; t--) {
+            if (t < top && heap.size() == limit && heap.peek().getScore() > t + MbtiCompatibility.MAX_SCORE) break;
+
+            RoaringBitmap bucket = (t == top) ? levels.get(t) : RoaringBitmap.andNot(levels.get(t), levels.get(t + 1));
+            if (workers != null && bucket.getLongCardinality() > chunkSize) {
+                int[] ordinals = bucket.toArray();
+                PriorityQueue<MatchRecommendation> part = workers.invoke(
+                        new TopKTask(me, index, ordinals, 0, ordinals.length, limit, after, chunkSize));
+                merge(heap, part, limit);
+                continue;
+            }
+            for (int ordinal : bucket) {
+                offer(heap, limit, me, index.candidate(ordinal), after);
+            }
+        }
+        return sorted(heap);
+    }
+
+    /** ordinals[from, to) 구간의 topK 힙. 구간이 chunkSize 보다 크면 반으로 나눠 fork 한다. */
+    private final class TopKTask extends RecursiveTask<PriorityQueue<MatchRecommendation>> {
+        private final RequesterContext me;
+        private final CandidateIndex index;
+        private final int[] ordinals;
+        private final int from, to, limit, chunkSize;
+        private final RecommendationCursor after;
+
+        TopKTask(RequesterContext me, CandidateIndex index, int[] ordinals, int from, int to,
+                 int limit, RecommendationCursor after, int chunkSize) {
+            this.me = me;
+            this.index = index;
+            this.ordinals = ordinals;
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+            this.after = after;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected PriorityQueue<MatchRecommendation> compute() {
+            if (to - from <= chunkSize) {
+                PriorityQueue<MatchRecommendation> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+                for (int i = from; i < to; i++) {
+                    offer(heap, limit, me, index.candidate(ordinals[i]), after);
+                }
+                return heap;
+            }
+            int mid = (from + to) >>> 1;
+            TopKTask left = new TopKTask(me, index, ordinals, from, mid, limit, after, chunkSize);
+            TopKTask right = new TopKTask(me, index, ordinals, mid, to, limit, after, chunkSize);
+            left.fork();
+            PriorityQueue<MatchRecommendation> merged = right.compute();
+            merge(merged, left.join(), limit);
+            return merged;
+        }
+    }
+
+    private static void merge(PriorityQueue<MatchRecommendation> heap, Collection<MatchRecommendation> part, int limit) {
+        for (MatchRecommendation item : part) {
+            if (heap.size() == limit && !ranksAbove(item.getScore(), item.getEmail(), heap.peek())) continue;
+            heap.offer(item);
+            if (heap.size() > limit) heap.poll();
+        }
+    }
+
+    private void offer(PriorityQueue<MatchRecommendation> heap, int limit, RequesterContext me,
+                       Candidate candidate, RecommendationCursor after) {
+        int score = calculateScore(me, candidate);
+        if (score == EXCLUDED) return;
+        if (after != null && !after.isBefore(score, candidate.email())) return;
+        if (heap.size() == limit && !ranksAbove(score, candidate.email(), heap.peek())) return;
+
+        heap.offer(MatchRecommendation.of(candidate, score));
+        if (heap.size() > limit) heap.poll();
+    }
+
+    private static List<MatchRecommendation> sorted(PriorityQueue<MatchRecommendation> heap) {
+        List<MatchRecommendation> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return result;
+    }
+
+    private static boolean ranksAbove(int score, String email, MatchRecommendation other) {
+        if (score != other.getScore()) return score > other.getScore();
+        return email.compareTo(other.getEmail()) < 0;
+    }
+
+    /** 후보 한 명의 점수. 본인/같은 성별/미완성 프로필이면 {@link #EXCLUDED} */
+    public int calculateScore(RequesterContext me, Candidate candidate) {
+        if (!candidate.eligible()) return EXCLUDED;
+        if (Objects.equals(me.email(), candidate.email())) return EXCLUDED;
+        if (Objects.equals(me.gender(), candidate.gender())) return EXCLUDED;
+
+        return score(me.mbti(), me.likeTagBits(), candidate.mbti(), candidate.tagBits());
+    }
+
+    /**
+     * 점수 계산 커널: mbti 궁합 표 조회 + (내 likeTags ∩ 상대 tags) 개수.
+     * 객체를 만들지 않으므로 후보 수만큼 반복 호출해도 할당이 없다.
+     */
+    public static int score(int myMbti, long[] myLikeTagBits, int theirMbti, long[] theirTagBits) {
+        return MbtiCompatibility.score(myMbti, theirMbti)
+                + TagDictionary.overlap(myLikeTagBits, theirTagBits);
     }
 }
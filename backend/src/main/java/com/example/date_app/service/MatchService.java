@@ -1,15 +1,20 @@
 package com.example.date_app.service;
 
 import com.example.date_app.dto.MatchRecommendation;
+import com.example.date_app.dto.RecommendationPage;
+import com.example.date_app.model.RecommendationCursor;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.model.StoredRecommendations;
+import com.example.date_app.model.UserProfile;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.cache.annotation.Cacheable;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 @RequiredArgsConstructor
@@ -17,27 +22,128 @@ public class MatchService {
 
     private final FirebaseAuthService firebaseAuthService;
     private final MatchScoringService matchScoringService;
+    private final ProfileIndex profileIndex;
+    private final RecommendationStore recommendationStore;
+    private final ParallelScoringPool parallelScoringPool;
+    // Firebase 콜백 스레드에서 점수 계산을 하지 않도록 넘겨받는 풀
+    @Qualifier("applicationTaskExecutor")
+    private final Executor taskExecutor;
 
-    public List<MatchRecommendation> recommendFor(String email) throws Exception {
+    // 사용자마다 미리 계산해 두는 추천 인원. 컨트롤러의 최대 페이지 크기와 같게 둔다.
+    @Value("${recommendation.store.top-n:100}")
+    private final int topN;
+
+    /**
+     * 상위 limit 명의 추천 목록.
+     * cursor 는 이전 페이지의 nextCursor 이며, 그 뒤 순위부터 다시 limit 명을 고른다.
+     */
+    public RecommendationPage recommendFor(String email, int limit, String cursor) throws Exception {
+        RecommendationCursor after = parseCursor(cursor);
+        RecommendationPage stored = fromStore(email, limit, after);
+        if (stored != null) return stored;
+
+        // 요청자 프로필은 요청당 한 번만 조회
         Map<String, Object> myProfile = firebaseAuthService.getUserProfile(email);
-        List<Map<String, Object>> allProfiles = firebaseAuthService.getAllUserProfiles();
-
-        String myGender = (String) myProfile.getOrDefault("gender", "");
-        Map<String, Object> myPersonality = (Map<String, Object>) myProfile.getOrDefault("personality", Map.of());
-        String myMbti = (String) myPersonality.getOrDefault("mbti", "");
-        List<String> myTags = (List<String>) myPersonality.getOrDefault("tags", List.of());
-
-        return allProfiles.stream()
-                .filter(p -> {
-                    String name = (String) p.getOrDefault("name", "");
-                    Map<String, Object> personality = (Map<String, Object>) p.getOrDefault("personality", Map.of());
-                    String mbti = (String) personality.getOrDefault("mbti", "");
-                    return name != null && !name.isBlank() && mbti != null && !mbti.isBlank();
-                })
-                .map(p -> matchScoringService.calculateScore(email, myGender, myMbti, myTags, p))
-                .filter(Objects::nonNull)
-                .sorted(Comparator.comparingInt(MatchRecommendation::getScore).reversed())
-                .collect(Collectors.toList());
+        return page(email, myProfile, candidatePool(), limit, after);
+    }
+
+    /** recommendFor 의 비동기 버전. Firebase 응답을 기다리는 동안 요청 스레드를 점유하지 않는다. */
+    public CompletableFuture<RecommendationPage> recommendForAsync(String email, int limit, String cursor) {
+        RecommendationCursor after = parseCursor(cursor);
+        RecommendationPage stored = fromStore(email, limit, after);
+        if (stored != null) return CompletableFuture.completedFuture(stored);
+
+        CompletableFuture<CandidateIndex> pool = candidatePoolAsync();
+        return firebaseAuthService.getUserProfileAsync(email)
+                .thenCombineAsync(pool, (myProfile, candidates) -> page(email, myProfile, candidates, limit, after),
+                        taskExecutor);
+    }
+
+    public int getTopN() {
+        return topN;
     }
 
+    /**
+     * 한 사용자의 상위 topN 명을 계산한다. RecommendationRefresher / 증분 갱신이 쓰며,
+     * 이미 자체 스레드에서 돌고 있으므로 병렬 풀을 쓰지 않는다.
+     */
+    public StoredRecommendations materialize(String email, UserProfile myProfile, CandidateIndex pool) {
+        RequesterContext me = myProfile.toRequester(email);
+        return stored(matchScoringService.topK(me, pool, topN, null));
+    }
+
+    private StoredRecommendations stored(List<MatchRecommendation> top) {
+        return new StoredRecommendations(List.copyOf(top), System.currentTimeMillis(), top.size() < topN);
+    }
+
+    private RecommendationPage page(String email, Map<String, Object> myProfile, CandidateIndex pool,
+                                    int limit, RecommendationCursor after) {
+        recommendationStore.recordServedOnDemand();
+        RequesterContext me = matchScoringService.requesterContext(email, myProfile);
+
+        // 첫 페이지는 topN 명을 계산해서 저장해 두고, 다음 요청부터 저장소에서 내려준다
+        if (after == null && limit < topN) {
+            StoredRecommendations stored = stored(parallelScoringPool.topK(me, pool, topN, null));
+            recommendationStore.put(email, stored);
+            return slice(stored, limit, null);
+        }
+
+        // 다음 페이지 존재 여부를 알기 위해 한 명 더 뽑는다
+        List<MatchRecommendation> top = parallelScoringPool.topK(me, pool, limit + 1, after);
+        return toPage(top, limit, System.currentTimeMillis());
+    }
+
+    /** 저장된 목록만으로 이 페이지를 만들 수 있으면 만든다. 저장된 범위를 넘어가면 null (즉석 계산으로 대체) */
+    private RecommendationPage fromStore(String email, int limit, RecommendationCursor after) {
+        StoredRecommendations stored = recommendationStore.get(email);
+        if (stored == null) return null;
+        RecommendationPage page = slice(stored, limit, after);
+        if (page != null) recommendationStore.recordServedFromStore();
+        return page;
+    }
+
+    private static RecommendationPage slice(StoredRecommendations stored, int limit, RecommendationCursor after) {
+        List<MatchRecommendation> items = stored.items();
+        int from = 0;
+        if (after != null) {
+            while (from < items.size() && !after.isBefore(items.get(from).getScore(), items.get(from).getEmail())) {
+                from++;
+            }
+        }
+        List<MatchRecommendation> window = items.subList(from, Math.min(items.size(), from + limit + 1));
+        // 저장된 목록이 잘린 것이라면, 다음 페이지 유무까지 알 수 있을 때만 저장소에서 내려준다
+        if (window.size() <= limit && !stored.complete()) return null;
+        return toPage(window, limit, stored.computedAt());
+    }
+
+    private static RecommendationPage toPage(List<MatchRecommendation> top, int limit, long computedAt) {
+        if (top.size() <= limit) {
+            return new RecommendationPage(top, null, computedAt);
+        }
+
+        List<MatchRecommendation> items = top.subList(0, limit);
+        MatchRecommendation last = items.get(limit - 1);
+        return new RecommendationPage(items, new RecommendationCursor(last.getScore(), last.getEmail()).encode(),
+                computedAt);
+    }
+
+    private static RecommendationCursor parseCursor(String cursor) {
+        return (cursor == null || cursor.isBlank()) ? null : RecommendationCursor.decode(cursor);
+    }
+
+    private CandidateIndex candidatePool() {
+        // 인덱스가 준비되기 전(기동 직후, Firebase 미연결)에만 RTDB 전체 조회 후 즉석에서 색인
+        if (profileIndex.isReady()) {
+            return profileIndex.candidateIndex();
+        }
+        return CandidateIndex.build(matchScoringService.toCandidates(firebaseAuthService.getAllUserProfiles()));
+    }
+
+    private CompletableFuture<CandidateIndex> candidatePoolAsync() {
+        if (profileIndex.isReady()) {
+            return CompletableFuture.completedFuture(profileIndex.candidateIndex());
+        }
+        return firebaseAuthService.getAllUserProfilesAsync()
+                .thenApplyAsync(profiles -> CandidateIndex.build(matchScoringService.toCandidates(profiles)), taskExecutor);
+    }
 }
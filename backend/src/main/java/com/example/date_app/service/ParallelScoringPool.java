@@ -0,0 +1,71 @@
+// com/example/date_app/service/ParallelScoringPool.java
+package com.example.date_app.service;
+
+import com.example.date_app.dto.MatchRecommendation;
+import com.example.date_app.model.RecommendationCursor;
+import com.example.date_app.model.RequesterContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 요청 경로의 추천 점수 계산을 후보 수에 따라 순차/병렬로 나눠 실행한다.
+ * 병렬 계산은 Tomcat 작업과 공용 풀(commonPool)을 나눠 쓰지 않도록 전용 ForkJoinPool 에서만 한다.
+ */
+@Component
+public class ParallelScoringPool {
+
+    private final MatchScoringService matchScoringService;
+    private final ForkJoinPool workers;
+    private final int threshold;
+    private final int chunkSize;
+
+    private final AtomicLong parallelRuns = new AtomicLong();
+    private final AtomicLong sequentialRuns = new AtomicLong();
+
+    public ParallelScoringPool(MatchScoringService matchScoringService,
+                               @Value("${match.parallel.threshold:50000}") int threshold,
+                               @Value("${match.parallel.chunk-size:8192}") int chunkSize,
+                               @Value("${match.parallel.parallelism:0}") int parallelism) {
+        this.matchScoringService = matchScoringService;
+        this.threshold = threshold;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.workers = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("match-scoring-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null, false);
+    }
+
+    /** 후보가 threshold 명 이상이면 병렬, 아니면 순차. 결과는 같다. */
+    public List<MatchRecommendation> topK(RequesterContext me, CandidateIndex index,
+                                          int limit, RecommendationCursor after) {
+        if (index.size() < threshold || workers.getParallelism() < 2) {
+            sequentialRuns.incrementAndGet();
+            return matchScoringService.topK(me, index, limit, after);
+        }
+        parallelRuns.incrementAndGet();
+        return matchScoringService.topK(me, index, limit, after, workers, chunkSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    public long getParallelRuns() {
+        return parallelRuns.get();
+    }
+
+    public long getSequentialRuns() {
+        return sequentialRuns.get();
+    }
+}
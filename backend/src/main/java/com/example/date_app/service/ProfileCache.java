@@ -0,0 +1,53 @@
+// com/example/date_app/service/ProfileCache.java
+package com.example.date_app.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * UID → 프로필 Map 캐시.
+ * /api/profile, /api/home, /profile 이 같은 사용자 프로필을 매번 RTDB 에서 읽던 것을 메모리에서 돌려준다.
+ * 프로필을 쓰는 쪽(수정/이미지 변경/삭제)과 ProfileIndex 의 변경 이벤트가 {@link #invalidate} 를 호출한다.
+ * 캐시된 Map 은 여러 요청이 공유하므로 읽기 전용으로만 사용해야 한다.
+ */
+@Component
+public class ProfileCache {
+
+    private final AsyncCache<String, Map<String, Object>> cache;
+
+    public ProfileCache(@Value("${firebase.profile-cache.ttl:10m}") Duration ttl,
+                        @Value("${firebase.profile-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /** 캐시에 없을 때만 loader 로 읽는다. 같은 UID 동시 조회는 한 번의 읽기로 합쳐진다. 실패한 읽기는 캐시에 남지 않는다. */
+    public CompletableFuture<Map<String, Object>> get(String uid,
+                                                      Function<String, CompletableFuture<Map<String, Object>>> loader) {
+        return cache.get(uid, (key, executor) -> loader.apply(key));
+    }
+
+    public void invalidate(String uid) {
+        if (uid == null) return;
+        cache.synchronous().invalidate(uid);
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
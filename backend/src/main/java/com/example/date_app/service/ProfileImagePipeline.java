@@ -0,0 +1,261 @@
+// com/example/date_app/service/ProfileImagePipeline.java
+package com.example.date_app.service;
+
+import com.example.date_app.model.UploadedImage;
+import com.example.date_app.util.ImageFormat;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 업로드된 프로필 원본으로 고정 크기 파생 이미지(avatar/card/full)를 만드는 비동기 파이프라인.
+ * 디코딩한 래스터가 크므로 작업자 수와 대기열을 제한한다. 대기열이 차면 파생 이미지 없이 원본만 쓴다.
+ * 끝나면 RTDB users/{uid}/profileImageVariants 에 URL 을 기록하고, 이전 업로드의 blob 을 지운다.
+ * 출력은 JPEG 이다 (JDK ImageIO 에는 WebP 인코더/디코더가 없어, WebP 원본은 파생 이미지를 만들지 않는다).
+ */
+@Component
+public class ProfileImagePipeline {
+
+    /** 파생 이미지 종류. crop 이면 가운데를 정사각형으로 자른 뒤 size×size, 아니면 긴 변을 size 로 줄인다 */
+    public enum Variant {
+        AVATAR(128, true),
+        CARD(480, false),
+        FULL(1080, false);
+
+        final int size;
+        final boolean crop;
+
+        Variant(int size, boolean crop) {
+            this.size = size;
+            this.crop = crop;
+        }
+
+        public String key() {
+            return name().toLowerCase();
+        }
+
+        /** 프로필 Map 에서 이 크기의 URL. 파생 이미지가 아직 없으면(처리 중/대기열 초과/WebP) 원본 profileImage */
+        public String urlIn(Map<String, Object> profile) {
+            if (profile.get("profileImageVariants") instanceof Map<?, ?> variants
+                    && variants.get(key()) instanceof String url) {
+                return url;
+            }
+            return (String) profile.get("profileImage");
+        }
+    }
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final FirebaseStorageService storageService;
+    private final FirebaseAuthService firebaseAuthService;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong garbageCollectedBlobs = new AtomicLong();
+    private volatile long lastProcessMillis = -1;
+
+    public ProfileImagePipeline(FirebaseStorageService storageService,
+                                FirebaseAuthService firebaseAuthService,
+                                @Value("${image.pipeline.workers:2}") int workers,
+                                @Value("${image.pipeline.queue-capacity:100}") int queueCapacity) {
+        this.storageService = storageService;
+        this.firebaseAuthService = firebaseAuthService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "image-derivative-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** 업로드 응답을 막지 않도록 작업자에게 넘긴다. */
+    public void submit(String uid, String email, UploadedImage image) {
+        try {
+            executor.execute(() -> process(uid, email, image));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            System.out.println("⚠️ 이미지 파이프라인 대기열 가득 참 - 원본만 사용: " + image.blobName());
+        }
+    }
+
+    private void process(String uid, String email, UploadedImage image) {
+        long start = System.currentTimeMillis();
+        Map<String, Object> variants = null;
+        try {
+            variants = derive(image);
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            System.out.println("❌ 파생 이미지 생성 실패: " + image.blobName() + " - " + e.getMessage());
+        }
+
+        try {
+            // 그 사이 더 새 이미지가 올라왔으면 기록/정리는 새 작업에 맡긴다
+            boolean current = firebaseAuthService.recordProfileImageVariants(email, image.sha256(), variants).join();
+            if (current) {
+                int deleted = storageService.deleteProfileImages(uid, image.sha256());
+                garbageCollectedBlobs.addAndGet(deleted);
+            }
+            processedCount.incrementAndGet();
+            lastProcessMillis = System.currentTimeMillis() - start;
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            System.out.println("❌ 파생 이미지 기록/정리 실패: " + image.blobName() + " - " + e.getMessage());
+        }
+    }
+
+    /** variant key → URL. 디코딩할 수 없는 형식이면 null */
+    private Map<String, Object> derive(UploadedImage image) throws IOException {
+        if (image.format() == ImageFormat.WEBP) return null;
+
+        Map<String, Object> urls = new LinkedHashMap<>();
+        boolean allExist = true;
+        for (Variant variant : Variant.values()) {
+            String name = derivativeName(image, variant);
+            urls.put(variant.key(), storageService.downloadUrl(name));
+            // 같은 내용을 다시 올린 경우(dedupe) 파생 이미지도 이미 있다
+            if (allExist && !(image.deduplicated() && storageService.exists(name))) allExist = false;
+        }
+        if (allExist) return urls;
+
+        BufferedImage source;
+        try (InputStream in = storageService.open(image.blobName())) {
+            source = decode(in, Variant.FULL.size);
+        }
+        if (source == null) return null;
+
+        for (Variant variant : Variant.values()) {
+            storageService.storeDerivative(derivativeName(image, variant), encodeJpeg(render(source, variant), JPEG_QUALITY));
+        }
+        return urls;
+    }
+
+    private static String derivativeName(UploadedImage image, Variant variant) {
+        return image.blobName() + "_" + variant.key() + ".jpg";
+    }
+
+    /**
+     * 원본을 디코딩하되, 긴 변이 maxEdge 의 두 배 이상이면 정수 배 subsampling 으로 줄여 읽는다.
+     * 5MB JPEG(예: 4000×3000)를 그대로 펼치면 수십 MB 래스터가 되므로 작업자당 힙을 줄이기 위함이다.
+     */
+    static BufferedImage decode(InputStream in, int maxEdge) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longest / maxEdge);
+                if (subsampling > 1) param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** RGB 로 그린다 (투명 배경은 흰색). 원본보다 크게 늘리지는 않는다. */
+    static BufferedImage render(BufferedImage source, Variant variant) {
+        int sx = 0, sy = 0, sw = source.getWidth(), sh = source.getHeight();
+        int width, height;
+        if (variant.crop) {
+            int side = Math.min(sw, sh);
+            sx = (sw - side) / 2;
+            sy = (sh - side) / 2;
+            sw = sh = side;
+            width = height = Math.min(variant.size, side);
+        } else {
+            double scale = Math.min(1.0, (double) variant.size / Math.max(sw, sh));
+            width = Math.max(1, (int) Math.round(sw * scale));
+            height = Math.max(1, (int) Math.round(sh * scale));
+        }
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, sx, sy, sx + sw, sy + sh, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getGarbageCollectedBlobs() {
+        return garbageCollectedBlobs.get();
+    }
+
+    public long getLastProcessMillis() {
+        return lastProcessMillis;
+    }
+}
@@ -0,0 +1,188 @@
+// com/example/date_app/service/ProfileIndex.java
+package com.example.date_app.service;
+
+import com.example.date_app.model.Candidate;
+import com.example.date_app.model.ProfileChangedEvent;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.model.UserProfile;
+import com.example.date_app.repository.ProfileRepository;
+import com.example.date_app.repository.Subscription;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /users 트리를 메모리에 유지하는 프로필 인덱스.
+ * 기동 시 한 번 전체를 읽고, 이후에는 {@link ProfileRepository#watch} 로 추가/변경/삭제만 반영한다.
+ * 원본 Map 은 보관하지 않고 변경 시 한 번 해석한 UserProfile 만 들고 있다.
+ * 추천 요청은 매번 RTDB 를 읽지 않고 {@link #snapshot()} / {@link #candidates()} 로 일관된 목록을 받아간다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProfileIndex {
+
+    private final MatchScoringService matchScoringService;
+    private final ProfileCache profileCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProfileRepository profileRepository;
+
+    private final Map<String, UserProfile> profiles = new ConcurrentHashMap<>();
+    // 점수 계산용 후보 (UserProfile 의 필드/배열을 그대로 공유한다)
+    private final Map<String, Candidate> candidates = new ConcurrentHashMap<>();
+    // email → 프로필. 증분 재계산에서 다른 사용자 입장의 점수를 구할 때 쓴다
+    private final Map<String, UserProfile> byEmail = new ConcurrentHashMap<>();
+
+    // 변경이 생길 때마다 version 이 올라가고, snapshot() 호출 시 버전이 다르면 다시 만든다.
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong rebuildCount = new AtomicLong();
+    private volatile long snapshotVersion = -1;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), List.of(), CandidateIndex.empty());
+
+    private volatile boolean ready = false;
+    private volatile long lastUpdateAt = 0L;
+
+    private Subscription subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            subscription = profileRepository.watch(new ProfileRepository.Listener() {
+                @Override
+                public void onUpsert(String uid, Map<String, Object> profile) {
+                    put(uid, profile);
+                }
+
+                @Override
+                public void onRemove(String uid) {
+                    remove(uid);
+                }
+
+                @Override
+                public void onInitialLoad() {
+                    ready = true;
+                    System.out.println("✅ 프로필 인덱스 초기 로드 완료: " + profiles.size() + "명");
+                }
+
+                @Override
+                public void onError(String message) {
+                    ready = false;
+                    System.out.println("❌ 프로필 인덱스 리스너 취소: " + message);
+                }
+            });
+        } catch (IllegalStateException e) {
+            System.out.println("⚠️ Firebase 미초기화 - 프로필 인덱스 비활성: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private void put(String uid, Map<String, Object> value) {
+        UserProfile profile = matchScoringService.decode(value);
+        UserProfile previous = profiles.put(uid, profile);
+        candidates.put(uid, profile.toCandidate());
+        if (previous != null && previous.email() != null && !previous.email().equals(profile.email())) {
+            byEmail.remove(previous.email());
+        }
+        if (profile.email() != null) {
+            byEmail.put(profile.email(), profile);
+        }
+        touch(uid, profile.email(), profile);
+    }
+
+    private void remove(String uid) {
+        if (uid == null) return;
+        UserProfile previous = profiles.remove(uid);
+        candidates.remove(uid);
+        String email = previous != null ? previous.email() : null;
+        if (email != null) byEmail.remove(email);
+        touch(uid, email, null);
+    }
+
+    private void touch(String uid, String email, UserProfile profile) {
+        // 다른 인스턴스/콘솔에서 바뀐 프로필도 캐시에 남지 않도록 한다
+        profileCache.invalidate(uid);
+        lastUpdateAt = System.currentTimeMillis();
+        version.incrementAndGet();
+        // 초기 로드 중의 이벤트는 알리지 않는다 (전체 로드 후 한 번에 계산)
+        if (ready && email != null) {
+            eventPublisher.publishEvent(new ProfileChangedEvent(uid, email, profile));
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** 현재 프로필 전체의 불변 목록. 변경이 없으면 같은 리스트를 그대로 돌려준다. */
+    public List<UserProfile> snapshot() {
+        return currentSnapshot().profiles();
+    }
+
+    /** snapshot() 과 같은 시점의 점수 계산용 후보 목록 */
+    public List<Candidate> candidates() {
+        return currentSnapshot().candidates();
+    }
+
+    /** email 사용자의 요청자 컨텍스트. 인덱스에 없으면 null */
+    public RequesterContext requester(String email) {
+        UserProfile profile = byEmail.get(email);
+        return profile != null ? profile.toRequester(email) : null;
+    }
+
+    /** candidates() 위의 성별/MBTI/태그 역색인. 서수는 candidates() 내 위치 */
+    public CandidateIndex candidateIndex() {
+        return currentSnapshot().index();
+    }
+
+    private Snapshot currentSnapshot() {
+        long current = version.get();
+        if (snapshotVersion != current) {
+            synchronized (this) {
+                current = version.get();
+                if (snapshotVersion != current) {
+                    List<Candidate> candidateList = List.copyOf(candidates.values());
+                    snapshot = new Snapshot(List.copyOf(profiles.values()), candidateList,
+                            CandidateIndex.build(candidateList));
+                    snapshotVersion = current;
+                    rebuildCount.incrementAndGet();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    /** 변경 이벤트가 반영될 때마다 올라가는 버전 */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getRebuildCount() {
+        return rebuildCount.get();
+    }
+
+    /** 마지막 변경 이벤트가 반영된 뒤 흐른 시간(ms). 아직 이벤트가 없으면 -1 */
+    public long getLastUpdateLagMillis() {
+        long last = lastUpdateAt;
+        return last == 0L ? -1 : System.currentTimeMillis() - last;
+    }
+
+    private record Snapshot(List<UserProfile> profiles, List<Candidate> candidates, CandidateIndex index) {
+    }
+}
@@ -0,0 +1,144 @@
+// com/example/date_app/service/RecommendationDeltaEngine.java
+package com.example.date_app.service;
+
+import com.example.date_app.dto.MatchRecommendation;
+import com.example.date_app.model.Candidate;
+import com.example.date_app.model.ProfileChangedEvent;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.model.StoredRecommendations;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 프로필 하나가 바뀌었을 때 저장된 추천 목록을 증분으로 고친다.
+ * 점수가 바뀌는 쌍은 "바뀐 사용자와 나머지 전원" 뿐이므로,
+ * 바뀐 사용자 본인 목록만 다시 계산하고(O(N)) 다른 사용자 목록에서는 그 사용자 한 명의 위치만 옮긴다(O(N · topN)).
+ * 이벤트는 Firebase 콜백 스레드에서 오므로 전용 스레드 하나에서 순서대로 처리한다.
+ */
+@Component
+public class RecommendationDeltaEngine {
+
+    private final ProfileIndex profileIndex;
+    private final MatchService matchService;
+    private final MatchScoringService matchScoringService;
+    private final RecommendationStore recommendationStore;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendation-delta");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong appliedCount = new AtomicLong();
+    private volatile long lastDeltaMillis = -1;
+
+    public RecommendationDeltaEngine(ProfileIndex profileIndex, MatchService matchService,
+                                     MatchScoringService matchScoringService, RecommendationStore recommendationStore) {
+        this.profileIndex = profileIndex;
+        this.matchService = matchService;
+        this.matchScoringService = matchScoringService;
+        this.recommendationStore = recommendationStore;
+    }
+
+    @EventListener
+    public void onProfileChanged(ProfileChangedEvent event) {
+        worker.execute(() -> {
+            try {
+                apply(event);
+            } catch (RuntimeException e) {
+                System.out.println("❌ 추천 목록 증분 갱신 실패 (" + event.email() + "): " + e.getMessage());
+            }
+        });
+    }
+
+    private void apply(ProfileChangedEvent event) {
+        long start = System.currentTimeMillis();
+        String email = event.email();
+        int topN = matchService.getTopN();
+
+        if (event.removed()) {
+            recommendationStore.remove(email);
+            recommendationStore.replaceAll((owner, stored) -> reposition(stored, null, email, topN));
+        } else {
+            // 1. 본인 목록: likeTags/성별이 바뀌었을 수 있으니 풀 전체를 다시 계산 (저장돼 있을 때만)
+            if (recommendationStore.get(email) != null) {
+                recommendationStore.put(email, matchService.materialize(email, event.profile(), profileIndex.candidateIndex()));
+            }
+            // 2. 다른 사용자 목록: 바뀐 사용자 한 명의 점수만 다시 구해 자리를 옮긴다
+            Candidate changed = event.profile().toCandidate();
+            recommendationStore.replaceAll((owner, stored) -> {
+                if (owner.equals(email)) return stored;
+                RequesterContext ownerContext = profileIndex.requester(owner);
+                int score = ownerContext == null ? MatchScoringService.EXCLUDED
+                        : matchScoringService.calculateScore(ownerContext, changed);
+                MatchRecommendation entry = score == MatchScoringService.EXCLUDED ? null
+                        : MatchRecommendation.of(changed, score);
+                return reposition(stored, entry, email, topN);
+            });
+        }
+
+        appliedCount.incrementAndGet();
+        lastDeltaMillis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * stored 에서 email 항목을 빼고, entry 가 있으면 순위에 맞게 다시 넣는다.
+     * 잘린 목록(complete == false)에는 저장된 마지막 항목보다 앞설 때만 넣는다.
+     * 그보다 뒤라면 저장되지 않은 후보와의 순서를 알 수 없기 때문이다. 바뀐 것이 없으면 stored 를 그대로 돌려준다.
+     */
+    static StoredRecommendations reposition(StoredRecommendations stored, MatchRecommendation entry,
+                                            String email, int topN) {
+        List<MatchRecommendation> items = stored.items();
+        int existing = -1;
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getEmail().equals(email)) {
+                existing = i;
+                break;
+            }
+        }
+
+        int insertAt = -1;
+        if (entry != null) {
+            int pos = Collections.binarySearch(items, entry, MatchScoringService.RANKING);
+            insertAt = pos >= 0 ? pos : -(pos + 1);
+            if (!stored.complete() && insertAt >= items.size()) insertAt = -1;
+        }
+        if (existing < 0 && insertAt < 0) return stored;
+        if (existing >= 0 && entry != null && items.get(existing).equals(entry)) return stored;
+
+        List<MatchRecommendation> updated = new ArrayList<>(items);
+        if (existing >= 0) updated.remove(existing);
+        boolean complete = stored.complete();
+        if (entry != null) {
+            int pos = Collections.binarySearch(updated, entry, MatchScoringService.RANKING);
+            pos = pos >= 0 ? pos : -(pos + 1);
+            if (complete || pos < updated.size()) updated.add(pos, entry);
+            if (updated.size() > topN) {
+                updated.remove(updated.size() - 1);
+                complete = false;
+            }
+        }
+        return new StoredRecommendations(List.copyOf(updated), stored.computedAt(), complete);
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    /** 마지막 증분 갱신에 걸린 시간(ms). 아직 없으면 -1 */
+    public long getLastDeltaMillis() {
+        return lastDeltaMillis;
+    }
+}
@@ -0,0 +1,113 @@
+// com/example/date_app/service/RecommendationRefresher.java
+package com.example.date_app.service;
+
+import com.example.date_app.model.UserProfile;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 모든 사용자의 상위 N 명 추천 목록을 백그라운드에서 다시 계산해 RecommendationStore 에 넣는다.
+ * 전용 고정 크기 풀을 쓰므로 요청 처리 스레드와 경쟁하는 정도가 parallelism 으로 제한된다.
+ * ProfileIndex 가 마지막 갱신 이후 바뀌지 않았으면 아무 것도 하지 않는다.
+ */
+@Component
+public class RecommendationRefresher {
+
+    private final ProfileIndex profileIndex;
+    private final MatchService matchService;
+    private final RecommendationStore recommendationStore;
+    private final int parallelism;
+    private final ExecutorService workers;
+
+    private volatile long lastRefreshedVersion = -1;
+    private volatile long lastRefreshAt = 0L;
+    private volatile long lastRefreshMillis = -1;
+    private volatile int lastRefreshUsers = 0;
+
+    public RecommendationRefresher(ProfileIndex profileIndex,
+                                   MatchService matchService,
+                                   RecommendationStore recommendationStore,
+                                   @Value("${recommendation.refresh.parallelism:2}") int parallelism) {
+        this.profileIndex = profileIndex;
+        this.matchService = matchService;
+        this.recommendationStore = recommendationStore;
+        this.parallelism = Math.max(1, parallelism);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-refresh-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${recommendation.refresh.initial-delay:PT1M}",
+            fixedDelayString = "${recommendation.refresh.interval:PT5M}")
+    public void refresh() {
+        if (!profileIndex.isReady()) return;
+        long version = profileIndex.getVersion();
+        if (version == lastRefreshedVersion) return;
+
+        long start = System.currentTimeMillis();
+        CandidateIndex pool = profileIndex.candidateIndex();
+        List<UserProfile> profiles = profileIndex.snapshot();
+
+        // 스레드 수보다 잘게 나눠서 느린 묶음 하나가 전체를 붙잡지 않게 한다
+        int chunkSize = Math.max(1, profiles.size() / (parallelism * 4) + 1);
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < profiles.size(); from += chunkSize) {
+            List<UserProfile> chunk = profiles.subList(from, Math.min(from + chunkSize, profiles.size()));
+            tasks.add(CompletableFuture.runAsync(() -> refreshChunk(chunk, pool), workers));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+        Set<String> emails = new HashSet<>();
+        for (UserProfile profile : profiles) {
+            if (profile.email() != null) emails.add(profile.email());
+        }
+        recommendationStore.retainAll(emails);
+
+        lastRefreshedVersion = version;
+        lastRefreshAt = System.currentTimeMillis();
+        lastRefreshMillis = lastRefreshAt - start;
+        lastRefreshUsers = emails.size();
+        System.out.println("✅ 추천 목록 사전 계산 완료: " + emails.size() + "명, " + lastRefreshMillis + "ms");
+    }
+
+    private void refreshChunk(List<UserProfile> chunk, CandidateIndex pool) {
+        for (UserProfile profile : chunk) {
+            if (profile.email() == null) continue;
+            recommendationStore.put(profile.email(), matchService.materialize(profile.email(), profile, pool));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /** 마지막 사전 계산이 끝난 뒤 흐른 시간(ms). 아직 한 번도 안 돌았으면 -1 */
+    public long getLastRefreshLagMillis() {
+        long last = lastRefreshAt;
+        return last == 0L ? -1 : System.currentTimeMillis() - last;
+    }
+
+    public long getLastRefreshMillis() {
+        return lastRefreshMillis;
+    }
+
+    public int getLastRefreshUsers() {
+        return lastRefreshUsers;
+    }
+}
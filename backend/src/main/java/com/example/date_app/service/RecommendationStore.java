@@ -0,0 +1,66 @@
+// com/example/date_app/service/RecommendationStore.java
+package com.example.date_app.service;
+
+import com.example.date_app.model.StoredRecommendations;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * email → 미리 계산된 추천 목록 저장소.
+ * RecommendationRefresher 가 주기적으로 채우고, MatchService 는 여기 있으면 점수 계산 없이 바로 내려준다.
+ */
+@Component
+public class RecommendationStore {
+
+    private final Map<String, StoredRecommendations> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong servedFromStore = new AtomicLong();
+    private final AtomicLong servedOnDemand = new AtomicLong();
+
+    public StoredRecommendations get(String email) {
+        return entries.get(email);
+    }
+
+    public void put(String email, StoredRecommendations recommendations) {
+        entries.put(email, recommendations);
+    }
+
+    public void remove(String email) {
+        entries.remove(email);
+    }
+
+    /** 모든 목록을 owner email 별로 다시 쓴다. 항목마다 원자적으로 바뀐다. */
+    public void replaceAll(BiFunction<String, StoredRecommendations, StoredRecommendations> update) {
+        entries.replaceAll(update);
+    }
+
+    /** 더 이상 존재하지 않는 사용자의 목록을 지운다. */
+    public void retainAll(Set<String> emails) {
+        entries.keySet().retainAll(emails);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    void recordServedFromStore() {
+        servedFromStore.incrementAndGet();
+    }
+
+    void recordServedOnDemand() {
+        servedOnDemand.incrementAndGet();
+    }
+
+    public long getServedFromStore() {
+        return servedFromStore.get();
+    }
+
+    public long getServedOnDemand() {
+        return servedOnDemand.get();
+    }
+}
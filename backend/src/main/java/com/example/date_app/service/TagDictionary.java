@@ -0,0 +1,58 @@
+// com/example/date_app/service/TagDictionary.java
+package com.example.date_app.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 태그 문자열 → 정수 ID 사전.
+ * 태그 집합을 long[] 비트셋으로 표현해서 교집합 크기를 Long.bitCount 로 구할 수 있게 한다.
+ * ID 는 한 번 발급되면 바뀌지 않으므로, 이미 만든 비트셋은 계속 유효하다.
+ */
+@Component
+public class TagDictionary {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public int idOf(String tag) {
+        return ids.computeIfAbsent(tag, t -> nextId.getAndIncrement());
+    }
+
+    public int size() {
+        return nextId.get();
+    }
+
+    public long[] toBits(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) return EMPTY;
+        long[] bits = EMPTY;
+        for (String tag : tags) {
+            if (tag == null) continue;
+            int id = idOf(tag);
+            int word = id >>> 6;
+            if (word >= bits.length) {
+                long[] grown = new long[word + 1];
+                System.arraycopy(bits, 0, grown, 0, bits.length);
+                bits = grown;
+            }
+            bits[word] |= 1L << id;
+        }
+        return bits;
+    }
+
+    /** 두 비트셋의 교집합 크기 */
+    public static int overlap(long[] a, long[] b) {
+        int n = Math.min(a.length, b.length);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+}
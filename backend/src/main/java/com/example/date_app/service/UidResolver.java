@@ -0,0 +1,77 @@
+// com/example/date_app/service/UidResolver.java
+package com.example.date_app.service;
+
+import com.example.date_app.repository.IdentityProvider;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.firebase.auth.FirebaseAuthException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * email → Firebase UID 캐시.
+ * 거의 모든 프로필 API 가 UID 하나를 얻으려고 Admin SDK getUserByEmail 원격 호출을 하던 것을 대신한다.
+ * 가입/로그인에서 Firebase 가 확인해 준 UID 는 {@link #prime} 으로 넣어 두고, 계정 삭제 시 {@link #invalidate} 한다.
+ * 클라이언트가 들고 오는 JWT 의 uid 클레임으로는 채우지 않는다 (삭제된 계정의 토큰이 죽은 UID 를 되살린다).
+ */
+@Component
+public class UidResolver {
+
+    private final AsyncCache<String, String> cache;
+    private final IdentityProvider identityProvider;
+
+    public UidResolver(IdentityProvider identityProvider,
+                       @Value("${firebase.uid-cache.ttl:30m}") Duration ttl,
+                       @Value("${firebase.uid-cache.max-size:100000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+        this.identityProvider = identityProvider;
+    }
+
+    /** 캐시에 없을 때만 getUserByEmail 을 호출한다. 같은 email 동시 조회는 한 번의 호출로 합쳐진다. */
+    public CompletableFuture<String> resolveAsync(String email) {
+        return cache.get(email, (key, executor) -> identityProvider.getUidByEmail(key));
+    }
+
+    public String resolve(String email) throws FirebaseAuthException {
+        try {
+            return resolveAsync(email).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof FirebaseAuthException authException) {
+                throw authException;
+            }
+            throw new RuntimeException("UID 조회 실패", e.getCause());
+        }
+    }
+
+    public void prime(String email, String uid) {
+        if (email == null || uid == null) return;
+        // 같은 값으로 덮어쓰면 Caffeine 이 교체 알림을 비동기로 예약하므로, 이미 들어 있으면 건너뛴다
+        CompletableFuture<String> current = cache.asMap().get(email); // 통계에 잡히지 않는 조회
+        if (current != null && current.isDone() && !current.isCompletedExceptionally()
+                && uid.equals(current.getNow(null))) {
+            return;
+        }
+        cache.put(email, CompletableFuture.completedFuture(uid));
+    }
+
+    public void invalidate(String email) {
+        cache.synchronous().invalidate(email);
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
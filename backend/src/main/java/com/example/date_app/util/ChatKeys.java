@@ -0,0 +1,85 @@
+// com/example/date_app/util/ChatKeys.java
+package com.example.date_app.util;
+
+import java.security.SecureRandom;
+
+/**
+ * 채팅 관련 RTDB 키 규칙. RTDB 키에는 '.' 을 쓸 수 없어서 email 을 치환해 사용한다.
+ * 프론트(ChatPage/MatchingPage, chatRoom.html)의 sanitizeEmail / roomId 생성과 같은 규칙이어야 한다.
+ */
+public final class ChatKeys {
+
+    /** chats/{roomId}/messages/{pushId}, chats/{roomId}/readState/{safeEmail} */
+    public static final String CHATS = "chats";
+    /** chats/{roomId}/readState/{safeEmail} = { lastReadMessageId, lastReadAt }. 사용자별 읽음 위치(watermark) */
+    public static final String READ_STATE = "readState";
+    /**
+     * chats/{roomId}/members = { safeEmail: email } 두 명. 서버가 방에 처음 접근할 때 한 번만 기록한다.
+     * roomId 만으로는 참여자를 알 수 없으므로(safeEmail 을 '_' 로 이어 나눌 수 없다) 방의 주인은 이것으로 정한다
+     */
+    public static final String MEMBERS = "members";
+    /** chat_list/{safeEmail}/{roomId} = { with, lastMessage, timestamp, unreadCount } */
+    public static final String CHAT_LIST = "chat_list";
+    /** user_rooms/{safeEmail}/{roomId} = 상대방 safeEmail. 사용자별 채팅방 역색인 */
+    public static final String USER_ROOMS = "user_rooms";
+
+    // Firebase push ID 문자 집합 (ASCII 순서 = 정렬 순서)
+    private static final char[] PUSH_CHARS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static long lastPushTime;
+    private static final int[] lastRandomChars = new int[12];
+
+    private ChatKeys() {
+    }
+
+    /**
+     * 클라이언트 push() 와 같은 형식의 20자 키: 시각 8자 + 난수 12자.
+     * 키 순서가 생성 순서와 같아서 orderByKey 로 시간순 정렬이 된다. 같은 ms 안에서는 난수 부분을 1 씩 올린다.
+     */
+    public static synchronized String pushId() {
+        long now = System.currentTimeMillis();
+        boolean duplicateTime = now <= lastPushTime;
+        if (duplicateTime) now = lastPushTime; // 시계가 뒤로 가도 순서를 지킨다
+        lastPushTime = now;
+
+        char[] id = new char[20];
+        for (int i = 7; i >= 0; i--) {
+            id[i] = PUSH_CHARS[(int) (now % 64)];
+            now /= 64;
+        }
+        if (!duplicateTime) {
+            for (int i = 0; i < 12; i++) lastRandomChars[i] = RANDOM.nextInt(64);
+        } else {
+            int i = 11;
+            while (i >= 0 && lastRandomChars[i] == 63) {
+                lastRandomChars[i] = 0;
+                i--;
+            }
+            if (i >= 0) lastRandomChars[i]++;
+        }
+        for (int i = 0; i < 12; i++) id[8 + i] = PUSH_CHARS[lastRandomChars[i]];
+        return new String(id);
+    }
+
+    /** RTDB 키로 쓸 수 있는 push ID 인지 (경로 구분자/금지 문자가 없는 20자) */
+    public static boolean isPushId(String key) {
+        if (key == null || key.length() != 20) return false;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_') return false;
+        }
+        return true;
+    }
+
+    /** a.b@c.com → a_dot_b_at_c_dot_com */
+    public static String safeEmail(String email) {
+        return email.replace(".", "_dot_").replace("@", "_at_");
+    }
+
+    /** 두 사용자의 safeEmail 을 정렬해 '_' 로 이은 값. 누가 먼저 말을 걸어도 같은 방이 된다. */
+    public static String roomId(String email1, String email2) {
+        String a = safeEmail(email1);
+        String b = safeEmail(email2);
+        return a.compareTo(b) <= 0 ? a + "_" + b : b + "_" + a;
+    }
+}
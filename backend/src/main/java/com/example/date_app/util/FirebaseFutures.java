@@ -0,0 +1,109 @@
+// com/example/date_app/util/FirebaseFutures.java
+package com.example.date_app.util;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public final class FirebaseFutures {
+
+    private FirebaseFutures() {
+    }
+
+    /**
+     * 쓰기용: 제한 시간 없이 ApiFuture 를 CompletableFuture 로 감싼다.
+     * 쓰기는 중간에 취소해도 서버 반영 여부를 알 수 없으므로 취소하지 않는다.
+     */
+    public static <T> CompletableFuture<T> toCompletable(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * Admin SDK 의 ApiFuture 를 CompletableFuture 로 감싼다.
+     * 제한 시간 안에 끝나지 않거나 호출 측에서 취소하면 원래 ApiFuture 도 취소한다.
+     */
+    public static <T> CompletableFuture<T> toCompletable(ApiFuture<T> apiFuture, long timeoutMillis) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+
+        future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, e) -> {
+                    if (e != null) apiFuture.cancel(true);
+                });
+        return future;
+    }
+
+    /**
+     * 단건 조회를 CompletableFuture 로 감싼다. ValueEventListener 콜백에서 바로 완료되며,
+     * 제한 시간 안에 응답이 없거나 호출 측에서 취소하면 리스너를 떼어낸다.
+     * onCancelled(권한 오류 등)는 "데이터 없음"(null)으로 완료한다.
+     */
+    public static CompletableFuture<DataSnapshot> readOnce(Query query, long timeoutMillis) {
+        return readOnce(query, timeoutMillis, false);
+    }
+
+    /**
+     * readOnce 와 같지만 onCancelled 를 DatabaseException 으로 실패시킨다.
+     * 결과를 캐시하거나 읽은 값으로 다시 쓰는 조회는 이것을 써야 "데이터 없음"으로 오인하지 않는다.
+     */
+    public static CompletableFuture<DataSnapshot> readOnceOrFail(Query query, long timeoutMillis) {
+        return readOnce(query, timeoutMillis, true);
+    }
+
+    private static CompletableFuture<DataSnapshot> readOnce(Query query, long timeoutMillis, boolean failOnCancel) {
+        CompletableFuture<DataSnapshot> future = new CompletableFuture<>();
+        ValueEventListener listener = new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                future.complete(snapshot);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                System.out.println("❌ RTDB 조회 취소: " + error.getMessage());
+                if (failOnCancel) {
+                    future.completeExceptionally(error.toException());
+                } else {
+                    future.complete(null);
+                }
+            }
+        };
+        query.addListenerForSingleValueEvent(listener);
+
+        future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((snapshot, e) -> {
+                    if (e != null) query.removeEventListener(listener);
+                });
+        return future;
+    }
+}
@@ -0,0 +1,43 @@
+// com/example/date_app/util/ImageFormat.java
+package com.example.date_app.util;
+
+/**
+ * 업로드 이미지 형식. 클라이언트가 보낸 Content-Type 대신 파일 앞부분(매직 바이트)으로 판별한다.
+ */
+public enum ImageFormat {
+
+    JPEG("image/jpeg"),
+    PNG("image/png"),
+    GIF("image/gif"),
+    WEBP("image/webp");
+
+    /** 판별에 필요한 앞부분 길이 (WebP: "RIFF" + 크기 4바이트 + "WEBP") */
+    public static final int HEADER_LENGTH = 12;
+
+    private final String contentType;
+
+    ImageFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /** header[0, length) 로 형식을 판별한다. 지원하지 않는 형식이면 null */
+    public static ImageFormat detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) return JPEG;
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return PNG;
+        if (startsWith(header, length, 0, 'G', 'I', 'F', '8')) return GIF;
+        if (startsWith(header, length, 0, 'R', 'I', 'F', 'F') && startsWith(header, length, 8, 'W', 'E', 'B', 'P')) return WEBP;
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, int... magic) {
+        if (length < offset + magic.length) return false;
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[offset + i] & 0xFF) != magic[i]) return false;
+        }
+        return true;
+    }
+}
@@ -1,12 +1,21 @@
 // com/example/date_app/util/JwtUtil.java
 package com.example.date_app.util;
 
+import com.example.date_app.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -14,6 +23,40 @@ public class JwtUtil {
     private static final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256); // 비밀키
     private static final long EXPIRATION_TIME = 86400000; // 1일 (밀리초)
 
+    // JwtParser 는 불변/스레드 안전이라 하나만 만들어 재사용한다
+    private static final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // 이미 서명 검증을 마친 토큰 (키: 토큰 SHA-256). 각 항목은 토큰의 exp 시각에 만료된다.
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, token.expiresAt() - System.currentTimeMillis()));
+                }
+
+                @Override
+                public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                    return expireAfterCreate(digest, token, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
     public String generateToken(String email) {
         return Jwts.builder()
                 .setSubject(email)
@@ -23,10 +66,37 @@ public class JwtUtil {
     }
 
     public String validateAndGetEmail(String token) {
-        Jws<Claims> claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-        return claims.getBody().getSubject();
+        return validateAndGetClaims(token).getSubject();
+    }
+
+    public Claims validateAndGetClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * 토큰을 검증하고 인증 사용자 정보를 돌려준다.
+     * 같은 토큰이 다시 오면 HMAC 검증/JSON 파싱 없이 캐시에서 꺼낸다. 만료된 토큰은 다시 검증하게 되어 예외가 난다.
+     */
+    public AuthenticatedUser authenticate(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.user();
+        }
+
+        Claims claims = validateAndGetClaims(token);
+        AuthenticatedUser user = new AuthenticatedUser(claims.getSubject());
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, new VerifiedToken(user, claims.getExpiration().getTime()));
+        }
+        return user;
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private record VerifiedToken(AuthenticatedUser user, long expiresAt) {
     }
 }
@@ -0,0 +1,78 @@
+// com/example/date_app/util/MbtiCompatibility.java
+package com.example.date_app.util;
+
+/**
+ * MBTI 궁합 점수표.
+ * 각 유형을 4비트 서수(E/I, S/N, F/T, P/J)로 인코딩하고, 점수는 16x16 byte 배열 한 번 조회로 구한다.
+ */
+public final class MbtiCompatibility {
+
+    public static final int UNKNOWN = -1;
+
+    private static final int E = 8, S = 4, F = 2, P = 1;
+
+    // TABLE[(me << 4) | them] — 행/열 순서는 서수 순서(INTJ, INTP, INFJ, ... ESFP)
+    private static final byte[] TABLE = {
+            /* INTJ */ 4, 4, 4, 4, 2, 3, 2, 3, 4, 5, 4, 5, 2, 3, 2, 3,
+            /* INTP */ 4, 4, 4, 4, 2, 3, 2, 3, 5, 4, 4, 4, 5, 3, 2, 3,
+            /* INFJ */ 4, 4, 4, 4, 1, 1, 1, 1, 4, 5, 4, 5, 1, 1, 1, 1,
+            /* INFP */ 4, 4, 4, 4, 1, 1, 1, 1, 5, 4, 5, 4, 1, 1, 1, 1,
+            /* ISTJ */ 2, 2, 1, 1, 4, 3, 4, 3, 3, 2, 1, 1, 4, 5, 4, 5,
+            /* ISTP */ 3, 3, 1, 1, 3, 2, 3, 2, 3, 3, 1, 1, 5, 2, 5, 2,
+            /* ISFJ */ 2, 2, 1, 1, 4, 3, 4, 3, 3, 2, 1, 1, 4, 5, 4, 5,
+            /* ISFP */ 3, 3, 1, 1, 3, 2, 3, 2, 3, 3, 5, 1, 5, 2, 5, 2,
+            /* ENTJ */ 4, 5, 4, 5, 3, 3, 3, 3, 4, 4, 4, 4, 3, 3, 3, 3,
+            /* ENTP */ 5, 4, 5, 4, 2, 3, 2, 3, 4, 4, 4, 4, 2, 3, 2, 3,
+            /* ENFJ */ 4, 4, 4, 5, 1, 1, 1, 5, 4, 4, 4, 4, 1, 1, 1, 1,
+            /* ENFP */ 5, 4, 5, 4, 1, 1, 1, 1, 4, 4, 4, 4, 1, 1, 1, 1,
+            /* ESTJ */ 2, 5, 1, 1, 4, 5, 4, 5, 3, 2, 1, 1, 4, 3, 4, 3,
+            /* ESTP */ 3, 3, 1, 1, 5, 2, 5, 2, 3, 3, 1, 1, 3, 2, 3, 2,
+            /* ESFJ */ 2, 2, 1, 1, 4, 5, 4, 5, 3, 2, 1, 1, 4, 3, 4, 3,
+            /* ESFP */ 3, 3, 1, 1, 5, 2, 5, 2, 3, 3, 5, 1, 3, 2, 3, 2,
+    };
+
+    /** 표에서 가장 높은 점수. 태그 겹침이 없는 후보 점수의 상한으로 쓴다. */
+    public static final int MAX_SCORE = max(TABLE);
+
+    private MbtiCompatibility() {
+    }
+
+    /** "ENFP" → 서수(0~15). 대문자 4글자 유효 유형이 아니면 {@link #UNKNOWN} */
+    public static int encode(String mbti) {
+        if (mbti == null || mbti.length() != 4) return UNKNOWN;
+        int ordinal = 0;
+        ordinal |= bit(mbti.charAt(0), 'E', 'I', E);
+        ordinal |= bit(mbti.charAt(1), 'S', 'N', S);
+        ordinal |= bit(mbti.charAt(2), 'F', 'T', F);
+        ordinal |= bit(mbti.charAt(3), 'P', 'J', P);
+        return ordinal < 0 ? UNKNOWN : ordinal;
+    }
+
+    public static String decode(int ordinal) {
+        if (ordinal < 0 || ordinal > 15) return "";
+        return new String(new char[]{
+                (ordinal & E) != 0 ? 'E' : 'I',
+                (ordinal & S) != 0 ? 'S' : 'N',
+                (ordinal & F) != 0 ? 'F' : 'T',
+                (ordinal & P) != 0 ? 'P' : 'J'
+        });
+    }
+
+    /** 두 서수의 궁합 점수. 어느 한쪽이라도 알 수 없는 유형이면 0 */
+    public static int score(int me, int them) {
+        if (me < 0 || them < 0) return 0;
+        return TABLE[(me << 4) | them];
+    }
+
+    private static int max(byte[] table) {
+        int max = 0;
+        for (byte b : table) max = Math.max(max, b);
+        return max;
+    }
+
+    private static int bit(char c, char set, char unset, int mask) {
+        if (c == set) return mask;
+        if (c == unset) return 0;
+        return Integer.MIN_VALUE; // 음수로 만들어 UNKNOWN 처리
+    }
+}
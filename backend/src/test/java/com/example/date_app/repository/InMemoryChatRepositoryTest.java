@@ -0,0 +1,143 @@
+package com.example.date_app.repository;
+
+import com.example.date_app.util.ChatKeys;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryChatRepositoryTest {
+
+    private final InMemoryDatabase database = new InMemoryDatabase(0, 0);
+    private final InMemoryChatRepository repository = new InMemoryChatRepository(database);
+
+    private void openRoom(String email1, String email2) {
+        String roomId = ChatKeys.roomId(email1, email2);
+        String safe1 = ChatKeys.safeEmail(email1);
+        String safe2 = ChatKeys.safeEmail(email2);
+        database.call(root -> {
+            InMemoryDatabase.set(root, "chats/" + roomId + "/messages/m1", Map.of("sender", email1, "text", "hi"));
+            InMemoryDatabase.set(root, "chat_list/" + safe1 + "/" + roomId, Map.of("with", email2, "unreadCount", 0));
+            InMemoryDatabase.set(root, "chat_list/" + safe2 + "/" + roomId, Map.of("with", email1, "unreadCount", 1));
+            InMemoryDatabase.set(root, "user_rooms/" + safe1 + "/" + roomId, safe2);
+            InMemoryDatabase.set(root, "user_rooms/" + safe2 + "/" + roomId, safe1);
+            return null;
+        }).join();
+    }
+
+    private Object read(String path) {
+        return database.call(root -> InMemoryDatabase.get(root, path)).join();
+    }
+
+    @Test
+    void roomIdIsOrderIndependent() {
+        assertEquals("a_at_x_dot_com_b_at_x_dot_com", ChatKeys.roomId("b@x.com", "a@x.com"));
+        assertEquals(ChatKeys.roomId("a@x.com", "b@x.com"), ChatKeys.roomId("b@x.com", "a@x.com"));
+    }
+
+    /** 역색인에 있는 방만 지우고, 상대방 역색인에서도 빠진다. 다른 사람들끼리의 방은 역색인에 적혀 있어도 그대로다. */
+    @Test
+    void deleteRoomsOfUsesReverseIndexOnly() {
+        openRoom("a@x.com", "b@x.com");
+        openRoom("a@x.com", "c@x.com");
+        openRoom("b@x.com", "c@x.com");
+        // a 가 직접 써 넣은 역색인: 남의 방(b_c)을 가리킨다
+        database.call(root -> {
+            InMemoryDatabase.set(root, "user_rooms/" + ChatKeys.safeEmail("a@x.com") + "/"
+                    + ChatKeys.roomId("b@x.com", "c@x.com"), ChatKeys.safeEmail("b@x.com"));
+            return null;
+        }).join();
+
+        assertEquals(2, repository.deleteRoomsOf(ChatKeys.safeEmail("a@x.com")).join());
+
+        assertNull(read("chats/" + ChatKeys.roomId("a@x.com", "b@x.com")));
+        assertNull(read("chats/" + ChatKeys.roomId("a@x.com", "c@x.com")));
+        assertNotNull(read("chats/" + ChatKeys.roomId("b@x.com", "c@x.com")));
+        assertNull(read("user_rooms/" + ChatKeys.safeEmail("a@x.com")));
+        assertEquals(Map.of(ChatKeys.roomId("b@x.com", "c@x.com"), ChatKeys.safeEmail("c@x.com")),
+                read("user_rooms/" + ChatKeys.safeEmail("b@x.com")));
+
+        assertEquals(0, repository.deleteRoomsOf(ChatKeys.safeEmail("a@x.com")).join());
+    }
+
+    /** 자신의 chat_list 와 대화 상대 chat_list 의 같은 방 항목만 지운다. 방 ID 가 with 와 맞지 않는 행은 상대 쪽을 건드리지 않는다. */
+    @Test
+    void deleteChatListOfRemovesOnlyPartnersRows() {
+        openRoom("a@x.com", "b@x.com");
+        openRoom("b@x.com", "c@x.com");
+        // a 가 직접 써 넣은 행: 남의 방(b_c)에 with 로 b 를 적었다
+        database.call(root -> {
+            InMemoryDatabase.set(root, "chat_list/" + ChatKeys.safeEmail("a@x.com") + "/"
+                    + ChatKeys.roomId("b@x.com", "c@x.com"), Map.of("with", "b@x.com"));
+            return null;
+        }).join();
+
+        assertEquals(3, repository.deleteChatListOf(ChatKeys.safeEmail("a@x.com")).join());
+
+        assertNull(read("chat_list/" + ChatKeys.safeEmail("a@x.com")));
+        assertEquals(Map.of(ChatKeys.roomId("b@x.com", "c@x.com"), Map.of("with", "c@x.com", "unreadCount", 0)),
+                read("chat_list/" + ChatKeys.safeEmail("b@x.com")));
+        assertNotNull(read("chat_list/" + ChatKeys.safeEmail("c@x.com")));
+    }
+
+    @Test
+    void backfillBuildsIndexFromChatList() {
+        openRoom("a@x.com", "b@x.com");
+        database.call(root -> {
+            InMemoryDatabase.set(root, "user_rooms", null);
+            return null;
+        }).join();
+
+        assertEquals(2, repository.backfillUserRooms().join());
+        assertEquals(ChatKeys.safeEmail("b@x.com"),
+                read("user_rooms/" + ChatKeys.safeEmail("a@x.com") + "/" + ChatKeys.roomId("a@x.com", "b@x.com")));
+    }
+
+    /** 구독 시 기존 자식을 먼저 받고, 이후에는 바뀐 자식만 받는다. 목록이 통째로 지워지면 행마다 삭제를 받는다. */
+    @Test
+    void watchChildrenDeliversOnlyChangedRows() {
+        openRoom("a@x.com", "b@x.com");
+        List<String> events = new ArrayList<>();
+        ChatRepository.ChildListener listener = new ChatRepository.ChildListener() {
+            @Override
+            public void onUpsert(String key, Map<String, Object> value) {
+                events.add("upsert " + key + " " + value.get("unreadCount"));
+            }
+
+            @Override
+            public void onRemove(String key) {
+                events.add("remove " + key);
+            }
+
+            @Override
+            public void onError(String message) {
+                events.add("error");
+            }
+        };
+        String listPath = "chat_list/" + ChatKeys.safeEmail("b@x.com");
+        Subscription subscription = repository.watchChildren(listPath, 0, listener);
+
+        String ab = ChatKeys.roomId("a@x.com", "b@x.com");
+        String bc = ChatKeys.roomId("b@x.com", "c@x.com");
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(listPath + "/" + ab + "/unreadCount", 2);
+        updates.put("chat_list/" + ChatKeys.safeEmail("a@x.com") + "/" + ab + "/lastMessage", "다른 사람 목록");
+        updates.put(listPath + "/" + bc, Map.of("with", "c@x.com", "unreadCount", 0));
+        repository.commit(updates).join();
+        repository.deleteChatListOf(ChatKeys.safeEmail("b@x.com")).join();
+
+        assertEquals("upsert " + ab + " 1", events.get(0));
+        // 한 번의 갱신 안에서는 순서가 정해져 있지 않다
+        assertEquals(Set.of("upsert " + ab + " 2", "upsert " + bc + " 0"), Set.copyOf(events.subList(1, 3)));
+        assertEquals(Set.of("remove " + ab, "remove " + bc), Set.copyOf(events.subList(3, 5)));
+
+        subscription.cancel();
+        repository.commit(Map.of(listPath + "/" + ab, Map.of("with", "a@x.com"))).join();
+        assertEquals(5, events.size());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.date_app.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProfileRepositoryTest {
+
+    private final InMemoryDatabase database = new InMemoryDatabase(1, 2);
+    private final InMemoryProfileRepository repository = new InMemoryProfileRepository(database);
+
+    /** updateChildren 처럼 상대 경로로 부분 갱신하고, null 은 삭제한다. 조회 결과는 저장된 값과 분리된 복사본이다. */
+    @Test
+    void updateAppliesRelativePathsAndReturnsCopies() {
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("email", "a@test.com");
+        profile.put("bio", "hello");
+        profile.put("personality", Map.of("mbti", "INFP", "tags", List.of("운동")));
+        repository.save("uid-a", profile).join();
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("personality/mbti", "ENTJ");
+        updates.put("bio", null);
+        repository.update("uid-a", updates).join();
+
+        Map<String, Object> found = repository.find("uid-a").join();
+        assertEquals("ENTJ", ((Map<?, ?>) found.get("personality")).get("mbti"));
+        assertEquals(List.of("운동"), ((Map<?, ?>) found.get("personality")).get("tags"));
+        assertFalse(found.containsKey("bio"));
+
+        found.put("email", "changed");
+        assertEquals("a@test.com", repository.find("uid-a").join().get("email"));
+
+        repository.delete("uid-a").join();
+        assertNull(repository.find("uid-a").join());
+        assertTrue(repository.findAll().join().isEmpty());
+    }
+
+    /** 구독 시 기존 프로필이 먼저 전달되고, 이후 변경/삭제가 순서대로 온다. */
+    @Test
+    void watchReplaysExistingThenStreamsChanges() throws Exception {
+        repository.save("uid-a", Map.of("email", "a@test.com")).join();
+
+        List<String> events = new ArrayList<>();
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Subscription subscription = repository.watch(new ProfileRepository.Listener() {
+            @Override
+            public void onUpsert(String uid, Map<String, Object> profile) {
+                events.add("upsert " + uid);
+            }
+
+            @Override
+            public void onRemove(String uid) {
+                events.add("remove " + uid);
+                done.countDown();
+            }
+
+            @Override
+            public void onInitialLoad() {
+                events.add("loaded");
+                loaded.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                events.add("error");
+            }
+        });
+
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        repository.save("uid-b", Map.of("email", "b@test.com")).join();
+        repository.delete("uid-a").join();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        subscription.cancel();
+
+        assertEquals(List.of("upsert uid-a", "loaded", "upsert uid-b", "remove uid-a"), events);
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.date_app.service;
+
+import com.example.date_app.repository.InMemoryChatRepository;
+import com.example.date_app.repository.InMemoryDatabase;
+import com.example.date_app.repository.InMemoryIdentityProvider;
+import com.example.date_app.util.ChatKeys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatServiceTest {
+
+    // 지연 편차가 있어도 쓰기는 보낸 순서대로 반영되어야 한다
+    private final InMemoryDatabase database = new InMemoryDatabase(1, 5);
+    private final InMemoryChatRepository repository = new InMemoryChatRepository(database);
+    private final InMemoryIdentityProvider identityProvider = new InMemoryIdentityProvider(database);
+    private final ChatRoomAccess roomAccess = new ChatRoomAccess(
+            new UidResolver(identityProvider, Duration.ofMinutes(30), 1000), repository, 1000, Duration.ofHours(1));
+    private final ChatHistoryService history = new ChatHistoryService(repository, roomAccess, 10, 100, Duration.ofMinutes(10));
+    private final ChatService chatService = new ChatService(repository, roomAccess, history, Duration.ofMinutes(30), Duration.ofMillis(20));
+
+    private final String a = "a@x.com";
+    private final String b = "b@x.com";
+    private final String roomId = ChatKeys.roomId(a, b);
+
+    @BeforeEach
+    void setUp() {
+        identityProvider.createUser(a, "pw").join();
+        identityProvider.createUser(b, "pw").join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatService.shutdown();
+        database.shutdown();
+    }
+
+    // 형식 오류는 바로, 상대 계정 확인 실패는 결과로 거절된다
+    private static void assertRejected(Supplier<CompletableFuture<?>> call) {
+        try {
+            call.get().join();
+            fail("거절되어야 한다");
+        } catch (IllegalArgumentException expected) {
+            // 바로 거절
+        } catch (CompletionException e) {
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    private Object read(String path) {
+        return database.call(root -> {
+            Object value = root;
+            for (String key : path.split("/")) value = value instanceof Map<?, ?> map ? map.get(key) : null;
+            return value;
+        }).join();
+    }
+
+    @Test
+    void sendWritesMessageRowsAndIndexTogether() {
+        Map<String, Object> result = chatService.send(a, roomId, b, "안녕").join();
+        String id = (String) result.get("id");
+        chatService.flush().join();
+
+        Map<?, ?> message = (Map<?, ?>) read("chats/" + roomId + "/messages/" + id);
+        assertEquals(a, message.get("sender"));
+        assertEquals(b, message.get("receiver"));
+        assertEquals("안녕", message.get("text"));
+        assertFalse(message.containsKey("read")); // 읽음은 readState watermark 로만 기록
+
+        Map<?, ?> senderRow = (Map<?, ?>) read("chat_list/" + ChatKeys.safeEmail(a) + "/" + roomId);
+        Map<?, ?> receiverRow = (Map<?, ?>) read("chat_list/" + ChatKeys.safeEmail(b) + "/" + roomId);
+        assertEquals(b, senderRow.get("with"));
+        assertEquals(a, receiverRow.get("with"));
+        assertEquals("안녕", receiverRow.get("lastMessage"));
+        assertEquals(1L, ((Number) receiverRow.get("unreadCount")).longValue());
+        assertEquals(ChatKeys.safeEmail(b), read("user_rooms/" + ChatKeys.safeEmail(a) + "/" + roomId));
+        assertEquals(ChatKeys.safeEmail(a), read("user_rooms/" + ChatKeys.safeEmail(b) + "/" + roomId));
+    }
+
+    /** 동시에 보내도 증가가 사라지지 않고, 읽음 처리 후에는 0 부터 다시 센다. 기존 값은 처음 한 번만 읽는다. */
+    @Test
+    void unreadCountSurvivesConcurrentSendsAndResetsOnRead() {
+        database.call(root -> {
+            root.put("chat_list", new LinkedHashMap<>(Map.of(ChatKeys.safeEmail(b),
+                    new LinkedHashMap<>(Map.of(roomId, new LinkedHashMap<>(Map.of("unreadCount", 3L)))))));
+            return null;
+        }).join();
+
+        List<CompletableFuture<Map<String, Object>>> sends = new ArrayList<>();
+        for (int i = 0; i < 50; i++) sends.add(chatService.send(a, roomId, b, "m" + i));
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        chatService.flush().join();
+
+        String unreadPath = "chat_list/" + ChatKeys.safeEmail(b) + "/" + roomId + "/unreadCount";
+        assertEquals(53L, ((Number) read(unreadPath)).longValue());
+        assertEquals(50, ((Map<?, ?>) read("chats/" + roomId + "/messages")).size());
+
+        chatService.markRead(b, roomId, a, null).join();
+        assertEquals(0L, ((Number) read(unreadPath)).longValue());
+        chatService.send(a, roomId, b, "again").join();
+        chatService.flush().join();
+        assertEquals(1L, ((Number) read(unreadPath)).longValue());
+    }
+
+    /** 여러 스레드에서 10k 건을 동시에 보내도 방마다 보낸 수만큼 정확히 남고, 쓰기는 창마다 모여 나간다. */
+    @Test
+    void tenThousandConcurrentSendsLoseNoIncrements() throws Exception {
+        int senders = 10;
+        int perSender = 1000;
+        List<String> senderEmails = new ArrayList<>();
+        for (int i = 0; i < senders; i++) senderEmails.add("s" + i + "@x.com");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<Map<String, Object>>>> submitted = new ArrayList<>();
+        for (int n = 0; n < perSender; n++) {
+            for (String sender : senderEmails) {
+                submitted.add(pool.submit(() -> {
+                    start.await();
+                    return chatService.send(sender, ChatKeys.roomId(sender, b), b, "hi");
+                }));
+            }
+        }
+        start.countDown();
+        for (var future : submitted) future.get().join();
+        pool.shutdown();
+        chatService.flush().join();
+
+        for (String sender : senderEmails) {
+            String unreadPath = "chat_list/" + ChatKeys.safeEmail(b) + "/" + ChatKeys.roomId(sender, b) + "/unreadCount";
+            assertEquals((long) perSender, ((Number) read(unreadPath)).longValue(), sender);
+        }
+        assertEquals(senders * perSender, chatService.getBufferedIncrements());
+        assertTrue(chatService.getFlushCount() < senders * perSender, "flushes: " + chatService.getFlushCount());
+    }
+
+    /** 읽음 위치 이후 상대 메시지 수가 unreadCount 가 되고, 읽음 위치는 뒤로 가지 않는다. */
+    @Test
+    void unreadCountIsDerivedFromWatermark() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) ids.add((String) chatService.send(a, roomId, b, "m" + i).join().get("id"));
+        chatService.send(b, roomId, a, "답장").join();
+
+        Map<String, Object> result = chatService.markRead(b, roomId, a, ids.get(1)).join();
+        assertEquals(3L, result.get("unreadCount"));
+        String unreadPath = "chat_list/" + ChatKeys.safeEmail(b) + "/" + roomId + "/unreadCount";
+        assertEquals(3L, ((Number) read(unreadPath)).longValue());
+        assertEquals(ids.get(1), read("chats/" + roomId + "/readState/" + ChatKeys.safeEmail(b) + "/lastReadMessageId"));
+
+        // 더 이전 위치로는 돌아가지 않는다
+        assertEquals(ids.get(1), chatService.markRead(b, roomId, a, ids.get(0)).join().get("lastReadMessageId"));
+
+        chatService.send(a, roomId, b, "m5").join();
+        chatService.flush().join();
+        assertEquals(4L, ((Number) read(unreadPath)).longValue());
+        assertEquals(0L, chatService.markRead(b, roomId, a, null).join().get("unreadCount"));
+        assertEquals(0L, ((Number) read(unreadPath)).longValue());
+
+        // 아직 없는 (미래) ID 는 방의 마지막 메시지로 줄어, 이후 메시지가 읽은 것으로 묻히지 않는다
+        String last = (String) read("chats/" + roomId + "/readState/" + ChatKeys.safeEmail(b) + "/lastReadMessageId");
+        assertEquals(last, chatService.markRead(b, roomId, a, "zzzzzzzzzzzzzzzzzzzz").join().get("lastReadMessageId"));
+        chatService.send(a, roomId, b, "m6").join();
+        assertEquals(1L, chatService.markRead(b, roomId, a, last).join().get("unreadCount"));
+    }
+
+    /** readState 가 없는 예전 방은 처음 읽음 처리할 때 read 플래그를 watermark 로 옮기고 플래그를 지운다. */
+    @Test
+    void legacyReadFlagsAreMigratedOnFirstRead() {
+        database.call(root -> {
+            Map<String, Object> messages = new LinkedHashMap<>();
+            messages.put("-LEGACY0000000000001", new LinkedHashMap<>(Map.of("sender", a, "text", "1", "read", true)));
+            messages.put("-LEGACY0000000000002", new LinkedHashMap<>(Map.of("sender", a, "text", "2", "read", true)));
+            messages.put("-LEGACY0000000000003", new LinkedHashMap<>(Map.of("sender", b, "text", "3", "read", false)));
+            messages.put("-LEGACY0000000000004", new LinkedHashMap<>(Map.of("sender", a, "text", "4", "read", false)));
+            root.put("chats", new LinkedHashMap<>(Map.of(roomId, new LinkedHashMap<>(Map.of("messages", messages)))));
+            return null;
+        }).join();
+
+        Map<String, Object> result = chatService.markRead(b, roomId, a, "-LEGACY0000000000001").join();
+
+        assertEquals("-LEGACY0000000000002", result.get("lastReadMessageId"));
+        assertEquals(1L, result.get("unreadCount"));
+        assertNull(read("chats/" + roomId + "/messages/-LEGACY0000000000002/read"));
+        assertNull(read("chats/" + roomId + "/messages/-LEGACY0000000000004/read"));
+        // 상대(a)가 받은 메시지의 플래그는 a 가 읽음 처리할 때 옮긴다
+        assertEquals(false, read("chats/" + roomId + "/messages/-LEGACY0000000000003/read"));
+    }
+
+    /** 다른 경로로 기록된 메시지도, 방을 계속 조회하는 중이라도 창이 쓰인 지 ttl 이 지나면 보인다. */
+    @Test
+    @SuppressWarnings("unchecked")
+    void historyWindowReloadsAfterTtlEvenWhileRead() throws InterruptedException {
+        ChatHistoryService shortLived = new ChatHistoryService(repository, roomAccess, 10, 100, Duration.ofMillis(300));
+        chatService.send(a, roomId, b, "first").join();
+        assertEquals(1, ((List<?>) shortLived.page(b, roomId, a, null, 10).join().get("messages")).size());
+
+        // 이 서버를 거치지 않은 쓰기 (다른 인스턴스 등)
+        repository.commit(Map.of("chats/" + roomId + "/messages/" + ChatKeys.pushId(),
+                Map.of("sender", a, "receiver", b, "text", "elsewhere", "timestamp", 0L))).join();
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(100);
+            if (((List<?>) shortLived.page(b, roomId, a, null, 10).join().get("messages")).size() == 2) return;
+        }
+        fail("창이 다시 읽히지 않았다");
+    }
+
+    /** 최근 창 안의 페이지는 캐시에서, 창보다 오래된 페이지는 before 커서 조회로 읽고, 끝에서는 hasMore=false. */
+    @Test
+    @SuppressWarnings("unchecked")
+    void historyPagesWalkBackToTheFirstMessage() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) ids.add((String) chatService.send(a, roomId, b, "m" + i).join().get("id"));
+
+        List<String> seen = new ArrayList<>();
+        String before = null;
+        boolean hasMore = true;
+        while (hasMore) {
+            Map<String, Object> page = history.page(b, roomId, a, before, 8).join();
+            List<String> pageIds = ((List<Map<String, Object>>) page.get("messages")).stream()
+                    .map(message -> (String) message.get("id")).toList();
+            assertTrue(pageIds.size() <= 8);
+            seen.addAll(0, pageIds);
+            hasMore = (Boolean) page.get("hasMore");
+            before = (String) page.get("nextBefore");
+        }
+        assertEquals(ids, seen);
+
+        // 창이 캐시된 뒤 보낸 메시지는 조회 없이 첫 페이지에 보인다
+        long misses = history.stats().missCount();
+        String latest = (String) chatService.send(b, roomId, a, "답장").join().get("id");
+        List<Map<String, Object>> first = (List<Map<String, Object>>) history.page(a, roomId, b, null, 3).join().get("messages");
+        assertEquals(List.of(ids.get(23), ids.get(24), latest), first.stream().map(message -> message.get("id")).toList());
+        assertEquals("답장", first.get(2).get("text"));
+        assertEquals(misses, history.stats().missCount());
+
+        assertThrows(IllegalArgumentException.class, () -> history.page("c@x.com", roomId, b, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> history.page(a, roomId, b, "../users", 10));
+
+        // 계정 삭제 시 그 사용자의 창만 버린다
+        history.invalidateRoomsOf("c@x.com");
+        assertEquals(1, history.size());
+        history.invalidateRoomsOf(b);
+        assertEquals(0, history.size());
+    }
+
+    @Test
+    void rejectsForeignRoomAndEmptyText() {
+        String otherRoom = ChatKeys.roomId(b, "c@x.com");
+        assertThrows(IllegalArgumentException.class, () -> chatService.send(a, otherRoom, b, "hi"));
+        assertThrows(IllegalArgumentException.class, () -> chatService.send(a, roomId, b, "  "));
+        assertThrows(IllegalArgumentException.class, () -> chatService.markRead(a, otherRoom, b, null));
+        assertThrows(IllegalArgumentException.class, () -> chatService.markRead(a, roomId, b, "../users"));
+    }
+
+    /**
+     * roomId 는 '_' 로 이은 값이라 이름이 방 ID 의 앞/뒤와 겹치는 사용자가 있을 수 있다.
+     * com_carol@z.com 의 safeEmail 은 bob@y.com / carol@z.com 방 ID 의 끝과 같지만 그 방에 들어갈 수 없어야 한다.
+     */
+    @Test
+    void hostileEmailCannotReachAnotherPairsRoom() {
+        String bob = "bob@y.com";
+        String carol = "carol@z.com";
+        String attacker = "com_carol@z.com";
+        String fakePartner = "bob@y_dot";
+        for (String email : List.of(bob, carol, attacker, fakePartner)) {
+            identityProvider.createUser(email, "pw").join();
+        }
+        String victimRoom = ChatKeys.roomId(bob, carol);
+        // 두 계정 모두 가입되어 있어도 방 ID 가 남의 방과 같아진다
+        assertEquals(victimRoom, ChatKeys.roomId(attacker, fakePartner));
+        assertRejected(() -> chatService.send(attacker, victimRoom, bob, "hi"));
+
+        // 진짜 두 사람이 먼저 대화하면 방의 참여자가 기록된다
+        chatService.send(bob, victimRoom, carol, "hi").join();
+        assertEquals(Map.of(ChatKeys.safeEmail(bob), bob, ChatKeys.safeEmail(carol), carol),
+                read("chats/" + victimRoom + "/members"));
+
+        // 기록된 참여자와 다르면 방 ID 가 맞아도 거부된다
+        assertRejected(() -> chatService.send(attacker, victimRoom, fakePartner, "hi"));
+        assertRejected(() -> chatService.send(fakePartner, victimRoom, attacker, "hi"));
+        assertRejected(() -> chatService.markRead(attacker, victimRoom, fakePartner, null));
+        assertRejected(() -> history.page(attacker, victimRoom, fakePartner, null, 10));
+        assertEquals(1, ((Map<?, ?>) read("chats/" + victimRoom + "/messages")).size());
+        assertNull(read("chat_list/" + ChatKeys.safeEmail(attacker)));
+        assertEquals(0, history.size());
+
+        // 참여자 기록 전의(예전) 방도, 남아 있는 메시지에 다른 사람이 있으면 기록하지 않는다
+        repository.commit(Collections.singletonMap("chats/" + victimRoom + "/members", null)).join();
+        roomAccess.invalidateRoomsOf(bob);
+        assertRejected(() -> history.page(attacker, victimRoom, fakePartner, null, 10));
+        assertNull(read("chats/" + victimRoom + "/members"));
+
+        // 이름이 방 ID 와 겹치는 사용자의 계정 삭제가 남의 창을 버리지 않는다
+        history.page(carol, victimRoom, bob, null, 10).join();
+        history.invalidateRoomsOf(attacker);
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    void pushIdsAreOrderedByCreation() {
+        String previous = ChatKeys.pushId();
+        for (int i = 0; i < 1000; i++) {
+            String next = ChatKeys.pushId();
+            assertEquals(20, next.length());
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.date_app.service;
+
+import com.example.date_app.util.ImageFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseStorageServiceTest {
+
+    /** 채널에 한 번에 쓰이는 양이 복사 버퍼 크기를 넘지 않고, 내용은 그대로 전달된다. */
+    @Test
+    void copyStreamsInBufferSizedChunks() throws Exception {
+        byte[] image = new byte[1_000_000];
+        new Random(1).nextBytes(image);
+        image[0] = (byte) 0xFF;
+        image[1] = (byte) 0xD8;
+        image[2] = (byte) 0xFF;
+
+        InputStream in = new ByteArrayInputStream(image);
+        byte[] buffer = new byte[64 * 1024];
+        int headerLength = in.readNBytes(buffer, 0, ImageFormat.HEADER_LENGTH);
+        assertEquals(ImageFormat.JPEG, ImageFormat.detect(buffer, headerLength));
+
+        RecordingChannel out = new RecordingChannel();
+        long written = FirebaseStorageService.copy(in, out, buffer, headerLength, 5 * 1024 * 1024);
+
+        assertEquals(image.length, written);
+        assertArrayEquals(image, out.bytes.toByteArray());
+        assertTrue(out.largestWrite <= buffer.length);
+    }
+
+    /** multipart 크기 정보와 상관없이 실제로 읽은 양으로 상한을 검사한다. */
+    @Test
+    void copyRejectsStreamsOverLimit() {
+        InputStream in = new ByteArrayInputStream(new byte[10_000]);
+        byte[] buffer = new byte[1024];
+        assertThrows(IllegalArgumentException.class,
+                () -> FirebaseStorageService.copy(in, new RecordingChannel(), buffer, 0, 4096));
+    }
+
+    @Test
+    void detectsFormatFromMagicBytes() {
+        assertEquals(ImageFormat.PNG, detect(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0));
+        assertEquals(ImageFormat.GIF, detect('G', 'I', 'F', '8', '9', 'a'));
+        assertEquals(ImageFormat.WEBP, detect('R', 'I', 'F', 'F', 1, 2, 3, 4, 'W', 'E', 'B', 'P'));
+        assertNull(detect('R', 'I', 'F', 'F', 1, 2, 3, 4, 'W', 'A', 'V', 'E'));
+        assertNull(detect('<', 's', 'v', 'g'));
+        assertNull(detect(0xFF, 0xD8));
+    }
+
+    private static ImageFormat detect(int... bytes) {
+        byte[] header = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) header[i] = (byte) bytes[i];
+        return ImageFormat.detect(header, header.length);
+    }
+
+    private static class RecordingChannel implements WritableByteChannel {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int largestWrite;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            largestWrite = Math.max(largestWrite, n);
+            byte[] chunk = new byte[n];
+            src.get(chunk);
+            bytes.write(chunk, 0, n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.date_app.service;
+
+import com.example.date_app.dto.MatchRecommendation;
+import com.example.date_app.model.Candidate;
+import com.example.date_app.model.Mbti;
+import com.example.date_app.model.RecommendationCursor;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.model.UserProfile;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchScoringServiceTest {
+
+    private static final String[] MBTI = {"INFP", "ENFP", "INTJ", "ESTJ", "ISFP", "ENTP"};
+    private static final String[] TAGS = {"운동", "여행", "음악", "독서", "요리", "게임"};
+
+    private final MatchScoringService scoringService = new MatchScoringService(new TagDictionary());
+
+    @Test
+    void topKPagesMatchFullSort() {
+        RequesterContext me = scoringService.requesterContext("me@test.com", Map.of(
+                "gender", "남",
+                "personality", Map.of("mbti", "INFP", "likeTags", List.of("여행", "음악", "요리"))));
+        List<Candidate> pool = syntheticPool(500);
+
+        List<MatchRecommendation> expected = scoringService.scoreAll(me, pool);
+        expected.sort(MatchScoringService.RANKING);
+
+        List<MatchRecommendation> paged = new ArrayList<>();
+        RecommendationCursor cursor = null;
+        while (true) {
+            List<MatchRecommendation> page = scoringService.topK(me, pool, 37, cursor);
+            if (page.isEmpty()) break;
+            paged.addAll(page);
+            MatchRecommendation last = page.get(page.size() - 1);
+            cursor = RecommendationCursor.decode(new RecommendationCursor(last.getScore(), last.getEmail()).encode());
+        }
+
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void decodeParsesTypedFields() {
+        UserProfile profile = scoringService.decode(Map.of(
+                "email", "a@test.com",
+                "name", "a",
+                "birthdate", "2000-02-29",
+                "personality", Map.of("mbti", "ENFP", "tags", List.of("여행"), "likeTags", List.of("음악", "여행"))));
+
+        assertEquals(Mbti.ENFP, profile.mbti());
+        assertEquals(LocalDate.of(2000, 2, 29), profile.birthdate());
+        assertEquals(1, TagDictionary.overlap(profile.tagBits(), profile.likeTagBits()));
+        assertTrue(profile.eligible());
+
+        UserProfile incomplete = scoringService.decode(Map.of("email", "b@test.com", "birthdate", "2000.02.29",
+                "personality", Map.of("mbti", "enfp")));
+        assertNull(incomplete.mbti());
+        assertEquals("enfp", incomplete.mbtiType());
+        assertNull(incomplete.birthdate());
+        assertFalse(incomplete.eligible());
+
+        // 파생 이미지가 있으면 그 URL, 아직 없는 크기는 원본
+        UserProfile withImages = scoringService.decode(Map.of("email", "c@test.com", "profileImage", "full.png",
+                "profileImageVariants", Map.of("avatar", "avatar.jpg")));
+        assertEquals("avatar.jpg", withImages.avatarImage());
+        assertEquals("full.png", withImages.cardImage());
+        assertEquals("avatar.jpg", withImages.toCandidate().avatarImage());
+    }
+
+    @Test
+    void indexedTopKMatchesFullScan() {
+        List<Candidate> pool = new ArrayList<>(syntheticPool(2000));
+        // 점수 계산에서 제외되는 후보들도 섞는다
+        pool.add(scoringService.toCandidate(Map.of("email", "blank@test.com", "name", "", "gender", "여",
+                "personality", Map.of("mbti", "ENFP", "tags", List.of("여행")))));
+        pool.add(scoringService.toCandidate(Map.of("email", "nogender@test.com", "name", "x",
+                "personality", Map.of("mbti", "ENFP", "tags", List.of("여행", "음악")))));
+        pool.add(scoringService.toCandidate(Map.of("email", "me@test.com", "name", "me", "gender", "여",
+                "personality", Map.of("mbti", "INFP", "tags", List.of("여행")))));
+        CandidateIndex index = CandidateIndex.build(pool);
+
+        for (List<String> likeTags : List.of(List.<String>of(), List.of("요리"), List.of(TAGS))) {
+            RequesterContext me = scoringService.requesterContext("me@test.com", Map.of(
+                    "gender", "남",
+                    "personality", Map.of("mbti", "INFP", "likeTags", likeTags)));
+            for (int limit : new int[]{1, 20, 500}) {
+                RecommendationCursor cursor = null;
+                for (int page = 0; page < 3; page++) {
+                    List<MatchRecommendation> expected = scoringService.topK(me, pool, limit, cursor);
+                    assertEquals(expected, scoringService.topK(me, index, limit, cursor));
+                    if (expected.isEmpty()) break;
+                    MatchRecommendation last = expected.get(expected.size() - 1);
+                    cursor = new RecommendationCursor(last.getScore(), last.getEmail());
+                }
+            }
+        }
+    }
+
+    @Test
+    void parallelTopKMatchesSequential() {
+        CandidateIndex index = CandidateIndex.build(syntheticPool(5000));
+        ForkJoinPool workers = new ForkJoinPool(4);
+        try {
+            for (List<String> likeTags : List.of(List.<String>of(), List.of("요리"), List.of(TAGS))) {
+                RequesterContext me = scoringService.requesterContext("me@test.com", Map.of(
+                        "gender", "남",
+                        "personality", Map.of("mbti", "ENFP", "likeTags", likeTags)));
+                for (int limit : new int[]{1, 21, 1000}) {
+                    List<MatchRecommendation> sequential = scoringService.topK(me, index, limit, null);
+                    assertEquals(sequential, scoringService.topK(me, index, limit, null, workers, 64));
+
+                    MatchRecommendation last = sequential.get(sequential.size() - 1);
+                    RecommendationCursor cursor = new RecommendationCursor(last.getScore(), last.getEmail());
+                    assertEquals(scoringService.topK(me, index, limit, cursor),
+                            scoringService.topK(me, index, limit, cursor, workers, 64));
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private List<Candidate> syntheticPool(int size) {
+        Random random = new Random(42);
+        List<Candidate> pool = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            pool.add(scoringService.toCandidate(Map.of(
+                    "email", "user" + i + "@test.com",
+                    "name", "user" + i,
+                    "gender", random.nextBoolean() ? "남" : "여",
+                    "personality", Map.of(
+                            "mbti", MBTI[random.nextInt(MBTI.length)],
+                            "tags", List.of(TAGS[random.nextInt(TAGS.length)], TAGS[random.nextInt(TAGS.length)])))));
+        }
+        return pool;
+    }
+}
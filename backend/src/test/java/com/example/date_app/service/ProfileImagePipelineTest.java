@@ -0,0 +1,52 @@
+package com.example.date_app.service;
+
+import com.example.date_app.service.ProfileImagePipeline.Variant;
+import com.example.date_app.util.ImageFormat;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileImagePipelineTest {
+
+    @Test
+    void rendersFixedSizeVariants() {
+        BufferedImage source = new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage avatar = ProfileImagePipeline.render(source, Variant.AVATAR);
+        assertEquals(128, avatar.getWidth());
+        assertEquals(128, avatar.getHeight());
+
+        BufferedImage card = ProfileImagePipeline.render(source, Variant.CARD);
+        assertEquals(480, card.getWidth());
+        assertEquals(320, card.getHeight());
+
+        // 원본보다 크게 늘리지 않는다
+        BufferedImage small = ProfileImagePipeline.render(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), Variant.FULL);
+        assertEquals(300, small.getWidth());
+        assertEquals(200, small.getHeight());
+    }
+
+    /** 큰 원본은 subsampling 으로 줄여 읽되, 긴 변이 목표 크기보다 작아지지는 않는다. */
+    @Test
+    void decodeSubsamplesLargeImages() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        BufferedImage decoded = ProfileImagePipeline.decode(new ByteArrayInputStream(png.toByteArray()), 1080);
+        assertEquals(1334, decoded.getWidth());
+        assertTrue(Math.max(decoded.getWidth(), decoded.getHeight()) >= 1080);
+    }
+
+    @Test
+    void encodesJpeg() throws Exception {
+        byte[] jpeg = ProfileImagePipeline.encodeJpeg(
+                ProfileImagePipeline.render(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), Variant.AVATAR), 0.85f);
+        assertEquals(ImageFormat.JPEG, ImageFormat.detect(jpeg, jpeg.length));
+        assertEquals(128, ImageIO.read(new ByteArrayInputStream(jpeg)).getWidth());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.date_app.service;
+
+import com.example.date_app.dto.MatchRecommendation;
+import com.example.date_app.model.Candidate;
+import com.example.date_app.model.RequesterContext;
+import com.example.date_app.model.StoredRecommendations;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecommendationDeltaEngineTest {
+
+    private static final String[] MBTI = {"INFP", "ENFP", "INTJ", "ESTJ", "ISFP", "ENTP"};
+    private static final String[] TAGS = {"운동", "여행", "음악", "독서", "요리", "게임"};
+
+    private final MatchScoringService scoringService = new MatchScoringService(new TagDictionary());
+
+    /** 증분으로 고친 목록은 처음부터 다시 계산한 목록의 앞부분과 같아야 한다. */
+    @Test
+    void repositionMatchesFullRecompute() {
+        Random random = new Random(7);
+        List<Map<String, Object>> profiles = new ArrayList<>();
+        for (int i = 0; i < 300; i++) profiles.add(profile(i, random));
+
+        for (int topN : new int[]{10, 1000}) {
+            for (int round = 0; round < 50; round++) {
+                List<Candidate> before = scoringService.toCandidates(profiles);
+                int changedIndex = random.nextInt(profiles.size());
+                Map<String, Object> changedProfile = profile(changedIndex, random);
+                List<Map<String, Object>> afterProfiles = new ArrayList<>(profiles);
+                afterProfiles.set(changedIndex, changedProfile);
+                List<Candidate> after = scoringService.toCandidates(afterProfiles);
+                Candidate changed = scoringService.toCandidate(changedProfile);
+
+                for (int owner = 0; owner < 20; owner++) {
+                    if (owner == changedIndex) continue;
+                    Map<String, Object> ownerProfile = profiles.get(owner);
+                    RequesterContext me = scoringService.requesterContext((String) ownerProfile.get("email"), ownerProfile);
+
+                    List<MatchRecommendation> old = scoringService.topK(me, before, topN, null);
+                    StoredRecommendations stored = new StoredRecommendations(old, 0L, old.size() < topN);
+
+                    int score = scoringService.calculateScore(me, changed);
+                    MatchRecommendation entry = score == MatchScoringService.EXCLUDED ? null
+                            : MatchRecommendation.of(changed, score);
+                    StoredRecommendations updated = RecommendationDeltaEngine.reposition(stored, entry, changed.email(), topN);
+
+                    List<MatchRecommendation> fresh = scoringService.topK(me, after, topN, null);
+                    assertEquals(fresh.subList(0, updated.items().size()), updated.items());
+                    if (updated.complete()) assertEquals(fresh, updated.items());
+                }
+                profiles = afterProfiles;
+            }
+        }
+    }
+
+    private static Map<String, Object> profile(int i, Random random) {
+        return Map.of(
+                "email", "user" + i + "@test.com",
+                "name", "user" + i,
+                "gender", random.nextBoolean() ? "남" : "여",
+                "personality", Map.of(
+                        "mbti", MBTI[random.nextInt(MBTI.length)],
+                        "tags", List.of(TAGS[random.nextInt(TAGS.length)], TAGS[random.nextInt(TAGS.length)]),
+                        "likeTags", List.of(TAGS[random.nextInt(TAGS.length)], TAGS[random.nextInt(TAGS.length)])));
+    }
+}
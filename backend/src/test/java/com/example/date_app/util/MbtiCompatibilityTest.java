@@ -0,0 +1,164 @@
+package com.example.date_app.util;
+
+import com.example.date_app.model.Mbti;
+import com.example.date_app.service.MatchScoringService;
+import com.example.date_app.service.TagDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Map.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MbtiCompatibilityTest {
+
+    // 기존 MatchScoringService 의 Map 기반 궁합표 (기준값)
+    private static final Map<String, Map<String, Integer>> LEGACY_TABLE = Map.ofEntries(
+            entry("INFP", Map.ofEntries(
+                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 5),
+                    entry("INTJ", 4), entry("ENTJ", 5), entry("INTP", 4), entry("ENTP", 4),
+                    entry("ISFP", 1), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
+                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
+            )),
+            entry("ENFP", Map.ofEntries(
+                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 5), entry("ENFJ", 4),
+                    entry("INTJ", 5), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 4),
+                    entry("ISFP", 1), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
+                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
+            )),
+            entry("INFJ", Map.ofEntries(
+                    entry("INFP", 4), entry("ENFP", 5), entry("INFJ", 4), entry("ENFJ", 4),
+                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 5),
+                    entry("ISFP", 1), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
+                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
+            )),
+            entry("ENFJ", Map.ofEntries(
+                    entry("INFP", 5), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 4),
+                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 4),
+                    entry("ISFP", 5), entry("ESFP", 1), entry("ISTP", 1), entry("ESTP", 1),
+                    entry("ISFJ", 1), entry("ESFJ", 1), entry("ISTJ", 1), entry("ESTJ", 1)
+            )),
+            entry("INTJ", Map.ofEntries(
+                    entry("INFP", 4), entry("ENFP", 5), entry("INFJ", 4), entry("ENFJ", 4),
+                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 5),
+                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
+                    entry("ISFJ", 2), entry("ESFJ", 2), entry("ISTJ", 2), entry("ESTJ", 2)
+            )),
+            entry("ENTJ", Map.ofEntries(
+                    entry("INFP", 5), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 4),
+                    entry("INTJ", 4), entry("ENTJ", 4), entry("INTP", 5), entry("ENTP", 4),
+                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
+                    entry("ISFJ", 3), entry("ESFJ", 3), entry("ISTJ", 3), entry("ESTJ", 3)
+            )),
+            entry("INTP", Map.ofEntries(
+                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 4), entry("ENFJ", 4),
+                    entry("INTJ", 4), entry("ENTJ", 5), entry("INTP", 4), entry("ENTP", 4),
+                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
+                    entry("ISFJ", 2), entry("ESFJ", 2), entry("ISTJ", 2), entry("ESTJ", 5)
+            )),
+            entry("ENTP", Map.ofEntries(
+                    entry("INFP", 4), entry("ENFP", 4), entry("INFJ", 5), entry("ENFJ", 4),
+                    entry("INTJ", 5), entry("ENTJ", 4), entry("INTP", 4), entry("ENTP", 4),
+                    entry("ISFP", 3), entry("ESFP", 3), entry("ISTP", 3), entry("ESTP", 3),
+                    entry("ISFJ", 2), entry("ESFJ", 2), entry("ISTJ", 2), entry("ESTJ", 2)
+            )),
+            entry("ISFP", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 5),
+                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
+                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
+                    entry("ISFJ", 3), entry("ESFJ", 5), entry("ISTJ", 3), entry("ESTJ", 5)
+            )),
+            entry("ESFP", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 5),
+                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
+                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
+                    entry("ISFJ", 5), entry("ESFJ", 3), entry("ISTJ", 5), entry("ESTJ", 3)
+            )),
+            entry("ISTP", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
+                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
+                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
+                    entry("ISFJ", 3), entry("ESFJ", 5), entry("ISTJ", 3), entry("ESTJ", 5)
+            )),
+            entry("ESTP", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
+                    entry("INTJ", 3), entry("ENTJ", 3), entry("INTP", 3), entry("ENTP", 3),
+                    entry("ISFP", 2), entry("ESFP", 2), entry("ISTP", 2), entry("ESTP", 2),
+                    entry("ISFJ", 5), entry("ESFJ", 3), entry("ISTJ", 5), entry("ESTJ", 3)
+            )),
+            entry("ISFJ", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
+                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 2), entry("ENTP", 2),
+                    entry("ISFP", 3), entry("ESFP", 5), entry("ISTP", 3), entry("ESTP", 5),
+                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
+            )),
+            entry("ESFJ", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
+                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 2), entry("ENTP", 2),
+                    entry("ISFP", 5), entry("ESFP", 3), entry("ISTP", 5), entry("ESTP", 3),
+                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
+            )),
+            entry("ISTJ", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
+                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 2), entry("ENTP", 2),
+                    entry("ISFP", 3), entry("ESFP", 5), entry("ISTP", 3), entry("ESTP", 5),
+                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
+            )),
+            entry("ESTJ", Map.ofEntries(
+                    entry("INFP", 1), entry("ENFP", 1), entry("INFJ", 1), entry("ENFJ", 1),
+                    entry("INTJ", 2), entry("ENTJ", 3), entry("INTP", 5), entry("ENTP", 2),
+                    entry("ISFP", 5), entry("ESFP", 3), entry("ISTP", 5), entry("ESTP", 3),
+                    entry("ISFJ", 4), entry("ESFJ", 4), entry("ISTJ", 4), entry("ESTJ", 4)
+            ))
+    );
+
+    @Test
+    void byteTableMatchesLegacyTableForAllPairs() {
+        int pairs = 0;
+        for (Map.Entry<String, Map<String, Integer>> row : LEGACY_TABLE.entrySet()) {
+            for (Map.Entry<String, Integer> cell : row.getValue().entrySet()) {
+                int me = MbtiCompatibility.encode(row.getKey());
+                int them = MbtiCompatibility.encode(cell.getKey());
+                assertEquals(cell.getValue(), MbtiCompatibility.score(me, them),
+                        row.getKey() + " -> " + cell.getKey());
+                pairs++;
+            }
+        }
+        assertEquals(256, pairs);
+    }
+
+    @Test
+    void encodeRoundTripsAndRejectsUnknownTypes() {
+        for (String mbti : LEGACY_TABLE.keySet()) {
+            assertEquals(mbti, MbtiCompatibility.decode(MbtiCompatibility.encode(mbti)));
+        }
+        assertEquals(MbtiCompatibility.UNKNOWN, MbtiCompatibility.encode(""));
+        assertEquals(MbtiCompatibility.UNKNOWN, MbtiCompatibility.encode("infp"));
+        assertEquals(MbtiCompatibility.UNKNOWN, MbtiCompatibility.encode("ABCD"));
+        assertEquals(0, MbtiCompatibility.score(MbtiCompatibility.UNKNOWN, MbtiCompatibility.encode("INFP")));
+    }
+
+    @Test
+    void mbtiEnumOrdinalIsTableCode() {
+        for (Mbti mbti : Mbti.values()) {
+            assertEquals(MbtiCompatibility.encode(mbti.name()), mbti.code());
+            assertEquals(mbti, Mbti.parse(mbti.name()));
+        }
+        assertNull(Mbti.parse("infp"));
+    }
+
+    @Test
+    void kernelAddsLikeTagOverlap() {
+        TagDictionary dictionary = new TagDictionary();
+        long[] likes = dictionary.toBits(List.of("운동", "여행", "음악"));
+        long[] theirs = dictionary.toBits(List.of("여행", "음악", "독서"));
+
+        int score = MatchScoringService.score(
+                MbtiCompatibility.encode("INFP"), likes,
+                MbtiCompatibility.encode("ENFJ"), theirs);
+
+        assertEquals(LEGACY_TABLE.get("INFP").get("ENFJ") + 2, score);
+    }
+}
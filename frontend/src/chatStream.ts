@@ -0,0 +1,56 @@
+// 백엔드 채팅 SSE 게이트웨이(/api/chat/.../stream) 구독
+// EventSource 는 Authorization 헤더를 보낼 수 없어서 fetch 스트림을 직접 읽는다.
+// 서버가 연결을 끊으면(대기열 초과, 타임아웃 등) 잠시 뒤 다시 연결하고, 서버는 현재 상태부터 다시 보낸다.
+
+export type StreamHandler = (event: string, data: any) => void;
+
+export const openChatStream = (path: string, onEvent: StreamHandler): (() => void) => {
+  const controller = new AbortController();
+  let stopped = false;
+
+  const connect = async () => {
+    while (!stopped) {
+      try {
+        const token = localStorage.getItem('jwtToken');
+        const response = await fetch(path, {
+          headers: { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' },
+          signal: controller.signal
+        });
+        if (!response.ok || !response.body) throw new Error(`stream ${response.status}`);
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        while (true) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += decoder.decode(value, { stream: true });
+
+          // 이벤트는 빈 줄로 구분된다
+          let boundary;
+          while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+            const block = buffer.slice(0, boundary);
+            buffer = buffer.slice(boundary + 2);
+            let event = 'message';
+            const data: string[] = [];
+            block.split('\n').forEach(line => {
+              if (line.startsWith('event:')) event = line.slice(6).trim();
+              else if (line.startsWith('data:')) data.push(line.slice(5).trimStart());
+            });
+            if (data.length > 0) onEvent(event, JSON.parse(data.join('\n')));
+          }
+        }
+      } catch (err) {
+        if (stopped) return;
+        console.error('채팅 스트림 끊김:', err);
+      }
+      if (!stopped) await new Promise(resolve => setTimeout(resolve, 2000));
+    }
+  };
+
+  connect();
+  return () => {
+    stopped = true;
+    controller.abort();
+  };
+};
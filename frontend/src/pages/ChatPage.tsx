@@ -1,6 +1,7 @@
 import React, { useEffect, useState, useRef, useCallback } from 'react';
 import { useNavigate, useSearchParams } from 'react-router-dom';
-import { ref, push, update, increment, onChildAdded } from 'firebase/database';
+import axios from 'axios';
+import { openChatStream } from '../chatStream';
 import {
   Box, Typography, TextField, IconButton
 } from '@mui/material';
@@ -8,7 +9,7 @@ import { motion, AnimatePresence } from 'framer-motion';
 import { useColorMode } from '../contexts/ColorModeContext';
 // eslint-disable-next-line @typescript-eslint/ban-ts-comment
 // @ts-expect-error
-import { auth, db } from '../firebase';
+import { auth } from '../firebase';
 import Brightness4Icon from '@mui/icons-material/Brightness4';
 import Brightness7Icon from '@mui/icons-material/Brightness7';
 import SendIcon from '@mui/icons-material/Send';
@@ -86,6 +87,15 @@ const InputArea = styled(Box)(({ theme }) => ({
 const sanitizeEmail = (email: string) =>
     email.replace(/\./g, '_dot_').replace(/@/g, '_at_');
 
+const PAGE_SIZE = 30;
+
+// id 로 중복을 합치고 push ID 순(=시간순)으로 정렬한다 (기록 페이지와 스트림이 같은 메시지를 보낼 수 있다)
+const mergeMessages = (prev: any[], incoming: any[]) => {
+  const byId = new Map(prev.map(m => [m.id, m]));
+  incoming.forEach(m => byId.set(m.id, m));
+  return Array.from(byId.values()).sort((a, b) => (a.id < b.id ? -1 : a.id > b.id ? 1 : 0));
+};
+
 const ChatRoomPage: React.FC = () => {
   const [params] = useSearchParams();
   const navigate = useNavigate();
@@ -94,21 +104,77 @@ const ChatRoomPage: React.FC = () => {
   const [messages, setMessages] = useState<any[]>([]);
   const [input, setInput] = useState('');
   const messagesEndRef = useRef<HTMLDivElement>(null);
+  const messagesBoxRef = useRef<HTMLDivElement>(null);
+  const lastMessageIdRef = useRef<string | null>(null);
   const withUser = params.get('with') || '';
 
-  // 안읽은 메시지 카운트 초기화 함수
-  const markUnreadZero = useCallback(() => {
+  const lastReadRef = useRef<string | null>(null);
+  const readTimerRef = useRef<ReturnType<typeof setTimeout> | null>(null);
+
+  // 이전 기록 페이지 커서. 스크롤이 맨 위에 닿으면 nextBefore 이전 메시지를 더 읽는다
+  const roomIdRef = useRef<string | null>(null);
+  const nextBeforeRef = useRef<string | null>(null);
+  const hasMoreRef = useRef(false);
+  const loadingOlderRef = useRef(false);
+
+  const fetchPage = async (roomId: string, before?: string | null) => {
+    const token = localStorage.getItem('jwtToken');
+    const res = await axios.get(`/api/chat/${roomId}/messages`, {
+      params: { with: withUser, limit: PAGE_SIZE, ...(before ? { before } : {}) },
+      headers: { Authorization: `Bearer ${token}` }
+    });
+    nextBeforeRef.current = res.data.nextBefore ?? nextBeforeRef.current;
+    hasMoreRef.current = res.data.hasMore;
+    return res.data.messages as any[];
+  };
+
+  const loadOlder = async () => {
+    const box = messagesBoxRef.current;
+    const roomId = roomIdRef.current;
+    if (!box || !roomId || !hasMoreRef.current || loadingOlderRef.current) return;
+    loadingOlderRef.current = true;
+    try {
+      const older = await fetchPage(roomId, nextBeforeRef.current);
+      // 위에 붙인 만큼 스크롤을 내려 보던 위치를 유지한다
+      const previousHeight = box.scrollHeight;
+      setMessages(prev => mergeMessages(prev, older));
+      requestAnimationFrame(() => {
+        box.scrollTop += box.scrollHeight - previousHeight;
+      });
+    } catch (err) {
+      console.error('이전 메시지 불러오기 실패:', err);
+    } finally {
+      loadingOlderRef.current = false;
+    }
+  };
+
+  // 읽음 처리: 메시지마다 쓰지 않고 마지막으로 본 메시지 ID(watermark) 하나만 서버에 보낸다.
+  // 입장 직후 최근 메시지가 한꺼번에 들어오므로 잠깐 모았다가 한 번만 보낸다.
+  const markRead = useCallback((messageId?: string) => {
     if (!auth.currentUser || !withUser) return;
+    if (messageId && (!lastReadRef.current || messageId > lastReadRef.current)) {
+      lastReadRef.current = messageId;
+    }
 
     const safeCurrentEmail = sanitizeEmail(auth.currentUser.email!);
     const safeWithEmail = sanitizeEmail(withUser);
     const roomId = [safeCurrentEmail, safeWithEmail].sort().join('_');
 
-    const currentUserChatRef = ref(db, `chat_list/${safeCurrentEmail}/${roomId}`);
-    update(currentUserChatRef, { unreadCount: 0 });
+    if (readTimerRef.current) clearTimeout(readTimerRef.current);
+    readTimerRef.current = setTimeout(() => {
+      const token = localStorage.getItem('jwtToken');
+      axios.post(`/api/chat/${roomId}/read`, {
+        with: withUser,
+        lastReadMessageId: lastReadRef.current ?? undefined
+      }, {
+        headers: { Authorization: `Bearer ${token}` }
+      }).catch(err => console.error('읽음 처리 실패:', err));
+    }, 300);
   }, [withUser]);
 
   useEffect(() => {
+    let stopStream: (() => void) | null = null;
+
     const unsubscribe = auth.onAuthStateChanged((user: any) => {
       if (!user || !withUser) {
         navigate('/login');
@@ -119,29 +185,39 @@ const ChatRoomPage: React.FC = () => {
       const safeCurrentEmail = sanitizeEmail(currentUser);
       const safeWithEmail = sanitizeEmail(withUser);
       const roomId = [safeCurrentEmail, safeWithEmail].sort().join('_');
+      roomIdRef.current = roomId;
+      nextBeforeRef.current = null;
+      hasMoreRef.current = false;
 
-      // 1. 입장 시 초기화
-      markUnreadZero();
+      // 1. 입장 시 최근 메시지 한 페이지만 읽고 읽음 처리
+      fetchPage(roomId)
+          .then(page => setMessages(prev => mergeMessages(prev, page)))
+          .catch(err => console.error('메시지 불러오기 실패:', err));
+      markRead();
 
-      // 2. 메시지 리스너 설정
-      const messagesRef = ref(db, `chats/${roomId}/messages`);
-      const off = onChildAdded(messagesRef, (snapshot) => {
-        setMessages(prev => [...prev, snapshot.val()]);
-        // 3. 새 메시지 도착 시 초기화
-        markUnreadZero();
+      // 2. 메시지 스트림 구독 (서버 게이트웨이가 방마다 RTDB 리스너 하나를 공유하고 바뀐 메시지만 보낸다)
+      stopStream?.();
+      stopStream = openChatStream(`/api/chat/${roomId}/stream?with=${encodeURIComponent(withUser)}`, (event, data) => {
+        if (event !== 'message') return;
+        // 재연결 시 최근 메시지를 다시 받으므로 id 로 합친다
+        setMessages(prev => mergeMessages(prev, [data]));
+        // 3. 상대 메시지를 보면 읽음 위치를 옮긴다
+        if (data.sender !== currentUser) markRead(data.id);
       });
-
-      return () => {
-        // 4. 나갈 때 초기화
-        markUnreadZero();
-        off();
-      };
     });
 
-    return () => unsubscribe();
-  }, [navigate, withUser, markUnreadZero]);
+    return () => {
+      // 4. 나갈 때 스트림을 닫는다 (대기 중인 읽음 처리는 그대로 보내진다)
+      unsubscribe();
+      stopStream?.();
+    };
+  }, [navigate, withUser, markRead]);
 
+  // 새 메시지가 끝에 붙었을 때만 아래로 내린다 (이전 기록을 위에 붙일 때는 그대로 둔다)
   useEffect(() => {
+    const lastId = messages.length > 0 ? messages[messages.length - 1].id : null;
+    if (lastId === lastMessageIdRef.current) return;
+    lastMessageIdRef.current = lastId;
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
   }, [messages]);
 
@@ -154,31 +230,19 @@ const ChatRoomPage: React.FC = () => {
     const safeWithEmail = sanitizeEmail(withUser);
     const roomId = [safeCurrentEmail, safeWithEmail].sort().join('_');
 
-    // 1. 메시지 저장
-    await push(ref(db, `chats/${roomId}/messages`), {
-      sender: user.email,
-      text: input.trim(),
-      timestamp: Date.now(),
-      read: false
-    });
-
-    // 2. 상대방 chat_list 갱신 (increment 사용)
-    const otherUserChatRef = ref(db, `chat_list/${safeWithEmail}/${roomId}`);
-    await update(otherUserChatRef, {
-      lastMessage: input.trim(),
-      timestamp: Date.now(),
-      unreadCount: increment(1), // ✅ Firebase increment 함수 사용
-      with: user.email
-    });
-
-    // 3. 내 chat_list 갱신
-    const currentUserChatRef = ref(db, `chat_list/${safeCurrentEmail}/${roomId}`);
-    await update(currentUserChatRef, {
-      lastMessage: input.trim(),
-      timestamp: Date.now(),
-      unreadCount: 0,
-      with: withUser
-    });
+    // 메시지 / 양쪽 chat_list / 안읽은 수 / user_rooms 를 서버가 한 번에 기록한다
+    const token = localStorage.getItem('jwtToken');
+    try {
+      await axios.post(`/api/chat/${roomId}/messages`, {
+        to: withUser,
+        text: input.trim()
+      }, {
+        headers: { Authorization: `Bearer ${token}` }
+      });
+    } catch (err) {
+      console.error('메시지 전송 실패:', err);
+      return;
+    }
 
     setInput('');
   };
@@ -195,11 +259,11 @@ const ChatRoomPage: React.FC = () => {
           </IconButton>
         </HeaderBar>
 
-        <Messages>
+        <Messages ref={messagesBoxRef} onScroll={e => e.currentTarget.scrollTop === 0 && loadOlder()}>
           <AnimatePresence initial={false}>
             {messages.map((msg, i) => (
                 <Bubble
-                    key={i}
+                    key={msg.id ?? i}
                     mine={msg.sender === auth.currentUser?.email}
                     initial={{ opacity: 0, y: 10 }}
                     animate={{ opacity: 1, y: 0 }}
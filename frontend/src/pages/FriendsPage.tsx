@@ -1,5 +1,6 @@
 import React, { useState, useRef, useCallback, useEffect, memo } from 'react';
 import { useNavigate } from 'react-router-dom';
+import axios from 'axios';
 import {
   Box,
   Typography,
@@ -24,8 +25,8 @@ import Brightness7Icon from '@mui/icons-material/Brightness7';
 import { useColorMode } from '../contexts/ColorModeContext';
 // eslint-disable-next-line @typescript-eslint/ban-ts-comment
 // @ts-expect-error
-import { auth, db } from '../firebase.js';
-import { ref, onValue } from 'firebase/database';
+import { auth } from '../firebase.js';
+import { openChatStream } from '../chatStream';
 /* eslint-disable @typescript-eslint/no-explicit-any */
 
 const PageContainer = styled('div')`
@@ -106,11 +107,12 @@ interface ChatRoom {
   timestamp: number;
 }
 
-const sanitizeEmail = (email: string) =>
-    email.replace(/\./g, '_dot_').replace(/@/g, '_at_');
+// 서버가 한 번에 돌려주는 썸네일 수 (ProfileController 와 맞춘다)
+const AVATAR_BATCH = 50;
 
-const FriendListItem = memo(({ room, onSelect, onChat }: {
+const FriendListItem = memo(({ room, avatar, onSelect, onChat }: {
   room: ChatRoom;
+  avatar?: string;
   onSelect: (room: ChatRoom) => void;
   onChat: (room: ChatRoom, e: React.MouseEvent) => void;
 }) => (
@@ -144,7 +146,7 @@ const FriendListItem = memo(({ room, onSelect, onChat }: {
             variant="dot"
             color={room.unreadCount > 0 ? 'error' : 'default'}
         >
-          <Avatar>{room.with && room.with.length > 0 ? room.with[0] : '?'}</Avatar>
+          <Avatar src={avatar}>{room.with && room.with.length > 0 ? room.with[0] : '?'}</Avatar>
         </Badge>
       </ListItemAvatar>
       <ListItemText
@@ -170,6 +172,9 @@ const FriendsPage: React.FC = () => {
   const { toggleColorMode } = useColorMode();
   const [selected, setSelected] = useState<ChatRoom | null>(null);
   const [chatRooms, setChatRooms] = useState<ChatRoom[]>([]);
+  // email → 썸네일 URL (원본 대신 128px avatar)
+  const [avatars, setAvatars] = useState<Record<string, string>>({});
+  const requestedAvatars = useRef(new Set<string>());
   const timerRef = useRef<ReturnType<typeof setTimeout> | null>(null);
 
   // 마운트 시 스크롤 위치 최상단으로 초기화
@@ -184,30 +189,25 @@ const FriendsPage: React.FC = () => {
         return;
       }
 
-      const safeEmail = sanitizeEmail(user.email);
-      const chatListRef = ref(db, `chat_list/${safeEmail}`);
+      // 서버 게이트웨이가 바뀐 chat_list 행만 보낸다 (목록 전체를 매번 다시 받지 않는다)
+      const rows = new Map<string, ChatRoom>();
+      const render = () => {
+        setChatRooms([...rows.values()].sort((a, b) => b.timestamp - a.timestamp));
+      };
 
-      const unsubscribeChatList = onValue(chatListRef, (snapshot) => {
-        const data = snapshot.val();
-        const rooms: ChatRoom[] = [];
-
-        if (!data) {
-          setChatRooms([]);
-          return;
-        }
-
-        Object.entries(data).forEach(([roomId, roomData]: [string, any]) => {
-          rooms.push({
-            roomId,
-            with: roomData.with || "",
-            lastMessage: roomData.lastMessage || "메시지 없음",
-            unreadCount: roomData.unreadCount || 0,
-            timestamp: roomData.timestamp || 0
+      const unsubscribeChatList = openChatStream('/api/chat/list/stream', (event, data) => {
+        if (event === 'row') {
+          rows.set(data.roomId, {
+            roomId: data.roomId,
+            with: data.with || "",
+            lastMessage: data.lastMessage || "메시지 없음",
+            unreadCount: data.unreadCount || 0,
+            timestamp: data.timestamp || 0
           });
-        });
-
-        rooms.sort((a, b) => b.timestamp - a.timestamp);
-        setChatRooms(rooms);
+        } else if (event === 'removed') {
+          rows.delete(data.roomId);
+        }
+        render();
       });
 
       return unsubscribeChatList;
@@ -218,6 +218,24 @@ const FriendsPage: React.FC = () => {
     };
   }, [navigate]);
 
+  // 목록에 새로 나타난 상대의 썸네일만 가져온다
+  useEffect(() => {
+    const token = localStorage.getItem('jwtToken');
+    const missing = [...new Set(chatRooms.map(room => room.with))]
+        .filter(email => email && !requestedAvatars.current.has(email));
+    if (!token || missing.length === 0) return;
+
+    missing.forEach(email => requestedAvatars.current.add(email));
+    for (let i = 0; i < missing.length; i += AVATAR_BATCH) {
+      axios.get('/api/profile/avatars', {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { emails: missing.slice(i, i + AVATAR_BATCH).join(',') }
+      })
+          .then(response => setAvatars(prev => ({ ...prev, ...response.data })))
+          .catch(err => console.error('썸네일 조회 실패:', err));
+    }
+  }, [chatRooms]);
+
   const openProfile = useCallback((room: ChatRoom) => setSelected(room), []);
   const closeProfile = useCallback(() => setSelected(null), []);
   const toChat = useCallback((room: ChatRoom, e: React.MouseEvent) => {
@@ -263,6 +281,7 @@ const FriendsPage: React.FC = () => {
                     <FriendListItem
                         key={room.roomId}
                         room={room}
+                        avatar={avatars[room.with]}
                         onSelect={openProfile}
                         onChat={toChat}
                     />
@@ -298,6 +317,7 @@ const FriendsPage: React.FC = () => {
               onTouchEnd={cancelHold}
           >
             <Avatar
+                src={selected ? avatars[selected.with] : undefined}
                 sx={{
                   width: 120,
                   height: 120,
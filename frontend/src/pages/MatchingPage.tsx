@@ -14,7 +14,7 @@ import FavoriteIcon from '@mui/icons-material/Favorite';
 import CloseIcon from '@mui/icons-material/Close';
 import PersonIcon from '@mui/icons-material/Person';
 import styled from '@emotion/styled';
-import { ref, set, get } from 'firebase/database';
+import { ref, update, get } from 'firebase/database';
 // eslint-disable-next-line @typescript-eslint/ban-ts-comment
 // @ts-expect-error
 import { auth, db } from '../firebase';
@@ -25,6 +25,8 @@ interface MatchRecommendation {
     mbti: string;
     //commonTags: string[];
     score: number;
+    avatarImage?: string;
+    cardImage?: string; // 480px 파생 이미지 (없으면 원본)
 }
 
 const Container = styled.div`
@@ -167,18 +169,19 @@ const MatchingPage: React.FC = () => {
         ].sort().join('_');
 
         try {
-            await set(ref(db, `chat_list/${sanitizeEmail(myEmail)}/${roomId}`), {
-                with: targetEmail,
-                lastMessage: '',
-                unreadCount: 0,
-                timestamp: Date.now()
-            });
-
-            await set(ref(db, `chat_list/${sanitizeEmail(targetEmail)}/${roomId}`), {
-                with: myEmail,
-                lastMessage: '',
-                unreadCount: 0,
-                timestamp: Date.now()
+            const safeMyEmail = sanitizeEmail(myEmail);
+            const safeTargetEmail = sanitizeEmail(targetEmail);
+            const now = Date.now();
+
+            // 양쪽 chat_list 와 user_rooms 역색인(계정 삭제 시 사용)을 한 번에 기록.
+            // 행 전체를 덮지 않고 필드 단위로 쓴다. unreadCount 는 서버 카운터만 쓴다
+            await update(ref(db), {
+                [`chat_list/${safeMyEmail}/${roomId}/with`]: targetEmail,
+                [`chat_list/${safeMyEmail}/${roomId}/timestamp`]: now,
+                [`chat_list/${safeTargetEmail}/${roomId}/with`]: myEmail,
+                [`chat_list/${safeTargetEmail}/${roomId}/timestamp`]: now,
+                [`user_rooms/${safeMyEmail}/${roomId}`]: safeTargetEmail,
+                [`user_rooms/${safeTargetEmail}/${roomId}`]: safeMyEmail
             });
 
             return roomId;
@@ -266,7 +269,7 @@ const MatchingPage: React.FC = () => {
 
             <MainContent {...handlers}>
                 <Card>
-                    <Avatar sx={{ width: 120, height: 120, mb: 2 }}>
+                    <Avatar src={currentProfile.cardImage} sx={{ width: 120, height: 120, mb: 2 }}>
                         <PersonIcon sx={{ fontSize: 60 }} />
                     </Avatar>
 